@@ -27,4 +27,16 @@ public @interface Logging {
      * and <code>ERROR</code> for <code>5xx</code>.
      */
     LogLevel at() default AUTO;
+
+    /**
+     * The fraction of problems to log, e.g. <code>0.01</code> to log only one in a hundred on average.
+     * Defaults to <code>1.0</code>, i.e. all problems are logged.
+     */
+    double sample() default 1.0;
+
+    /**
+     * The maximum number of problems of one exception class to log per second; more are not logged.
+     * Short bursts of up to this number are allowed. Defaults to <code>0</code>, i.e. unlimited.
+     */
+    int maxPerSecond() default 0;
 }
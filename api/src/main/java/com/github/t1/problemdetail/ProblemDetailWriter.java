@@ -0,0 +1,48 @@
+package com.github.t1.problemdetail;
+
+import jakarta.ws.rs.core.Response;
+
+import java.util.function.Function;
+
+/**
+ * The problem detail annotations of one exception class, resolved at build time.
+ * Implementations are generated by the <code>ProblemDetailProcessor</code> of the <code>problem-details-processor</code>
+ * artifact and registered as a {@link java.util.ServiceLoader service}, so an implementation can map the
+ * exception without reflection. If there is no writer for an exception class, the annotations are
+ * read by reflection as a fallback.
+ */
+public interface ProblemDetailWriter<T extends Exception> {
+    Class<T> exceptionType();
+
+    /** The value of the {@link Status} annotation, or <code>null</code> if there is none */
+    default Response.Status status() { return null; }
+
+    /** The value of the {@link Type} annotation, or <code>null</code> if there is none */
+    default String type() { return null; }
+
+    /** The value of the {@link Title} annotation, or <code>null</code> if there is none */
+    default String title() { return null; }
+
+    /** The {@link Logging#to()} of the type, or the package if empty */
+    default String logTo() { return ""; }
+
+    /** The {@link Logging#at()} of the type, or the package if <code>AUTO</code> */
+    default LogLevel logAt() { return LogLevel.AUTO; }
+
+    /** The {@link Logging#sample()} of the type, or the package if <code>1.0</code> */
+    default double logSample() { return 1.0; }
+
+    /** The {@link Logging#maxPerSecond()} of the type, or the package if <code>0</code> */
+    default int logMaxPerSecond() { return 0; }
+
+    /** Pass all {@link Detail}, {@link Instance}, and {@link Extension} annotated members to the visitor */
+    void members(Members<T> members);
+
+    interface Members<T> {
+        void detail(String memberName, Function<T, Object> getter);
+
+        void instance(String memberName, Function<T, Object> getter);
+
+        void extension(String name, String memberName, Function<T, Object> getter);
+    }
+}
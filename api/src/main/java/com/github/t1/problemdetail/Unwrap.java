@@ -0,0 +1,24 @@
+package com.github.t1.problemdetail;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an exception as a mere wrapper: the problem detail is built from its cause instead,
+ * if the cause is an exception.
+ * <p>
+ * Some wrappers like the <code>EJBException</code> or the <code>CompletionException</code>
+ * are unwrapped by default, but only exactly these classes, not their subclasses;
+ * annotate a subclass to unwrap it, too.
+ * <p>
+ * Like the other annotations, it's inherited from superclasses and interfaces;
+ * <code>@Unwrap(false)</code> keeps a subclass of an annotated wrapper.
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Unwrap {
+    boolean value() default true;
+}
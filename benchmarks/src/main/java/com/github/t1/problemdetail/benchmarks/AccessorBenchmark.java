@@ -0,0 +1,71 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor.Accessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Compares the {@link ProblemTypeDescriptor.Accessor}s (bound to method handles)
+ * with plain reflection, as it was used before, to read the {@link Extension} values of an exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorBenchmark {
+    public static class ExtendedException extends RuntimeException {
+        @Extension private final int f1 = 123;
+        @Extension private final String f2 = "some-value";
+
+        @Extension private String m1() { return "method-value"; }
+    }
+
+    private final ExtendedException exception = new ExtendedException();
+    private Field[] fields;
+    private Method[] methods;
+    private List<Accessor> accessors;
+
+    @Setup public void setup() throws ReflectiveOperationException {
+        fields = new Field[]{ExtendedException.class.getDeclaredField("f1"), ExtendedException.class.getDeclaredField("f2")};
+        methods = new Method[]{ExtendedException.class.getDeclaredMethod("m1")};
+        accessors = ProblemTypeDescriptor.of(ExtendedException.class).getExtensions();
+    }
+
+    /** what <code>ProblemDetails</code> used to do for every mapped exception */
+    @Benchmark public void reflection(Blackhole blackhole) throws IllegalAccessException, InvocationTargetException {
+        for (Method method : methods) {
+            method.setAccessible(true);
+            blackhole.consume(method.invoke(exception));
+        }
+        for (Field field : fields) {
+            field.setAccessible(true);
+            blackhole.consume(field.get(exception));
+        }
+    }
+
+    @Benchmark public void accessors(Blackhole blackhole) {
+        for (Accessor accessor : accessors) {
+            blackhole.consume(accessor.get(exception));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.benchmarks.ProblemDetailsBenchmark.BenchmarkProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import com.github.t1.problemdetail.ri.lib.ProblemXml;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Compares writing the body of a problem without extensions from the cached template,
+ * with rendering the same body as a plain map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyTemplateBenchmark {
+    @SuppressWarnings("unchecked")
+    private final Map<String, Object> templated = (Map<String, Object>)
+        new BenchmarkProblemDetails(new IllegalStateException("some message")).getBody();
+    private final Map<String, Object> rendered = new LinkedHashMap<>(templated);
+
+    @Benchmark public byte[] jsonTemplate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        new ProblemJson(templated).writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark public byte[] jsonRendered() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        new ProblemJson(rendered).writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark public byte[] xmlTemplate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        new ProblemXml(templated).writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark public byte[] xmlRendered() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        new ProblemXml(rendered).writeTo(out);
+        return out.toByteArray();
+    }
+}
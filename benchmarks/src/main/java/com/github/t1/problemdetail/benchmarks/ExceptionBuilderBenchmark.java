@@ -0,0 +1,74 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.ri.lib.ProblemDetailJsonToExceptionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Measures how a client turns a problem detail body back into an exception with
+ * {@link ProblemDetailJsonToExceptionBuilder#trigger()}; that includes filling in the stack trace of the new exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionBuilderBenchmark {
+    public static class OutOfCreditException extends RuntimeException {
+        @Instance public String instance;
+        @Extension public int balance;
+        @Extension public int cost;
+    }
+
+    private byte[] body;
+    private byte[] unknownTypeBody;
+
+    @Setup public void setup() {
+        String type = ProblemDetailJsonToExceptionBuilder.register(OutOfCreditException.class);
+        body = ("{" +
+            "\"type\":\"" + type + "\"," +
+            "\"title\":\"Out Of Credit\"," +
+            "\"status\":400," +
+            "\"detail\":\"Your current balance is 30, but that costs 50.\"," +
+            "\"instance\":\"urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d\"," +
+            "\"balance\":30," +
+            "\"cost\":50" +
+            "}").getBytes(UTF_8);
+        unknownTypeBody = new String(body, UTF_8).replace(type, "urn:problem-type:unknown").getBytes(UTF_8);
+    }
+
+    @Benchmark public RuntimeException trigger() {
+        try {
+            new ProblemDetailJsonToExceptionBuilder(new ByteArrayInputStream(body)).trigger();
+            throw new IllegalStateException("expected an exception");
+        } catch (OutOfCreditException e) {
+            return e;
+        }
+    }
+
+    /** a client can't do anything with a problem it doesn't know, so this should be cheap */
+    @Benchmark public RuntimeException unknownType() {
+        try {
+            new ProblemDetailJsonToExceptionBuilder(new ByteArrayInputStream(unknownTypeBody)).trigger();
+            throw new IllegalStateException("expected an exception");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
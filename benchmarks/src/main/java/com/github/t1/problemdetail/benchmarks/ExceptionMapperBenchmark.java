@@ -0,0 +1,66 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.benchmarks.ProblemDetailsBenchmark.AnnotatedException;
+import com.github.t1.problemdetailmapper.ProblemDetailExceptionMapper;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletionException;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Measures the {@link ProblemDetailExceptionMapper#toResponse(Exception)}, i.e. building the problem detail,
+ * negotiating the media type, and building the JAX-RS response with RESTEasy; but not writing the body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionMapperBenchmark {
+    private static final String ACCEPT = "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8";
+
+    private final ProblemDetailExceptionMapper mapper = new ProblemDetailExceptionMapper();
+    private final Exception annotated = new AnnotatedException();
+    private final Exception wrapped = new CompletionException(new AnnotatedException());
+    private final Exception webApplication = new NotFoundException();
+
+    @Setup public void setup() throws ReflectiveOperationException {
+        HttpHeaders headers = (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), new Class<?>[]{HttpHeaders.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getHeaderString") && HttpHeaders.ACCEPT.equals(args[0]))
+                    return ACCEPT;
+                throw new UnsupportedOperationException(method.getName());
+            });
+        Field field = ProblemDetailExceptionMapper.class.getDeclaredField("requestHeaders");
+        field.setAccessible(true);
+        field.set(mapper, headers);
+    }
+
+    @Benchmark public Response annotated() {
+        return mapper.toResponse(annotated);
+    }
+
+    @Benchmark public Response wrapped() {
+        return mapper.toResponse(wrapped);
+    }
+
+    @Benchmark public Response webApplication() {
+        return mapper.toResponse(webApplication);
+    }
+}
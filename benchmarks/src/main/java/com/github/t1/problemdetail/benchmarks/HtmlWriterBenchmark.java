@@ -0,0 +1,113 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.ri.lib.ProblemHtml;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Compares the precompiled html template with concatenating the whole page for every response, as it was done before.
+ * Run with <code>-prof gc</code> to see the bytes allocated per response in <code>gc.alloc.rate.norm</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlWriterBenchmark {
+    private final Map<String, Object> body = new LinkedHashMap<>();
+
+    {
+        body.put("type", URI.create("https://example.com/probs/out-of-credit"));
+        body.put("title", "You do not have enough credit.");
+        body.put("status", 403);
+        body.put("detail", "Your current balance is 30, but that costs 50.");
+        body.put("instance", URI.create("urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d"));
+        body.put("accounts", asList(URI.create("/account/12345"), URI.create("/account/67890")));
+        body.put("balance", 30);
+    }
+
+    @Benchmark public byte[] concatenating() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        writeConcatenating(body, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark public byte[] template() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        new ProblemHtml(body).writeTo(out);
+        return out.toByteArray();
+    }
+
+    /** what the <code>ProblemDetailHtmlMessageBodyWriter</code> used to do */
+    private static void writeConcatenating(Map<String, Object> problem, ByteArrayOutputStream entityStream) {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(entityStream));
+
+        out.print("" +
+            "<html>\n" +
+            "<head>\n" +
+            "    <style>\n" +
+            "        body {\n" +
+            "            font-family: \"Fira Code\", \"Courier New\", Courier, monospace;\n" +
+            "            font-size: 14px;\n" +
+            "        }\n" +
+            "\n" +
+            "        table {\n" +
+            "            margin-top: 24pt;\n" +
+            "            border: 1px solid rgb(221, 221, 221);\n" +
+            "            border-collapse: collapse;\n" +
+            "            box-sizing: border-box;\n" +
+            "            color: rgb(51, 51, 51);\n" +
+            "        }\n" +
+            "\n" +
+            "        tr {\n" +
+            "            height: 37px;\n" +
+            "        }\n" +
+            "\n" +
+            "        td {\n" +
+            "            border: 1px solid rgb(221, 221, 221);\n" +
+            "            border-collapse: collapse;\n" +
+            "            padding: 8px 8px 0;\n" +
+            "            vertical-align: top;\n" +
+            "        }\n" +
+            "    </style>\n" +
+            "    <title>Problem Detail: " + problem.get("title") + "</title>\n" +
+            "</head>\n" +
+            "<body>\n" +
+            "<h1>" + problem.get("title") + "</h1>\n" +
+            "\n" +
+            "<table>\n");
+        problem.forEach((key, value) -> {
+            if (value != null) {
+                out.print("" +
+                    "    <tr>\n" +
+                    "        <td>" + key + "</td>\n" +
+                    "        <td>" + value + "</td>\n" +
+                    "    </tr>\n");
+            }
+        });
+        out.print("" +
+            "</table>\n" +
+            "</body>\n" +
+            "</html>\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.Detail;
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.Title;
+import com.github.t1.problemdetail.Type;
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Measures building the {@link ProblemDetails} for exceptions of increasing complexity;
+ * the exceptions are created only once, so their stack traces don't count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProblemDetailsBenchmark {
+    @Status(BAD_REQUEST)
+    @Type("urn:problem-type:out-of-credit")
+    @Title("You do not have enough credit.")
+    public static class AnnotatedException extends RuntimeException {
+        @Instance private final URI instance = URI.create("urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d");
+
+        @Detail public String detail() { return "Your current balance is 30, but that costs 50."; }
+    }
+
+    @Status(BAD_REQUEST)
+    public static class ExtensionHeavyException extends RuntimeException {
+        @Extension private final int balance = 30;
+        @Extension private final int cost = 50;
+        @Extension private final String currency = "EUR";
+        @Extension private final URI account = URI.create("/account/12345");
+        @Extension private final List<URI> accounts = asList(URI.create("/account/12345"), URI.create("/account/67890"));
+        @Extension private final Map<String, Object> limits = Map.of("daily", 100, "monthly", 1000);
+        @Extension private final LocalDate due = LocalDate.of(2020, 1, 1);
+        @Extension("is-blocked") private final boolean blocked = false;
+
+        @Extension public String reason() { return "insufficient funds"; }
+
+        @Extension public long retryAfter() { return 3600; }
+    }
+
+    static class BenchmarkProblemDetails extends ProblemDetails {
+        BenchmarkProblemDetails(Exception exception) { super(exception); }
+
+        @Override protected boolean hasDefaultMessage() { return false; }
+
+        @Override protected String findMediaTypeSubtype() { return "json"; }
+    }
+
+    private final Exception plain = new RuntimeException("some message");
+    private final Exception annotated = new AnnotatedException();
+    private final Exception extensionHeavy = new ExtensionHeavyException();
+
+    @Benchmark public Object plain() {
+        return new BenchmarkProblemDetails(plain).getBody();
+    }
+
+    @Benchmark public Object annotated() {
+        return new BenchmarkProblemDetails(annotated).getBody();
+    }
+
+    @Benchmark public Object extensionHeavy() {
+        return new BenchmarkProblemDetails(extensionHeavy).getBody();
+    }
+}
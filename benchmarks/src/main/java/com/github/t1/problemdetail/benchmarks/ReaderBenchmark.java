@@ -0,0 +1,57 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.ProblemDetail;
+import com.github.t1.problemdetailmapper.ProblemDetailJsonMessageBodyReader;
+import com.github.t1.problemdetailmapper.ProblemDetailXmlMessageBodyReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/** Measures reading a problem detail body into a {@link ProblemDetail} with the JSON and XML MessageBodyReaders */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+    private static final byte[] JSON = ("{" +
+        "\"type\":\"https://example.com/probs/out-of-credit\"," +
+        "\"title\":\"You do not have enough credit.\"," +
+        "\"status\":403," +
+        "\"detail\":\"Your current balance is 30, but that costs 50.\"," +
+        "\"instance\":\"urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d\"" +
+        "}").getBytes(UTF_8);
+    private static final byte[] XML = ("" +
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+        "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+        "    <type>https://example.com/probs/out-of-credit</type>\n" +
+        "    <title>You do not have enough credit.</title>\n" +
+        "    <status>403</status>\n" +
+        "    <detail>Your current balance is 30, but that costs 50.</detail>\n" +
+        "    <instance>urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d</instance>\n" +
+        "</problem>\n").getBytes(UTF_8);
+
+    private final ProblemDetailJsonMessageBodyReader jsonReader = new ProblemDetailJsonMessageBodyReader();
+    private final ProblemDetailXmlMessageBodyReader xmlReader = new ProblemDetailXmlMessageBodyReader();
+
+    @Benchmark public ProblemDetail json() throws IOException {
+        return jsonReader.readFrom(ProblemDetail.class, null, null, null, null, new ByteArrayInputStream(JSON));
+    }
+
+    @Benchmark public ProblemDetail xml() throws IOException {
+        return xmlReader.readFrom(ProblemDetail.class, null, null, null, null, new ByteArrayInputStream(XML));
+    }
+}
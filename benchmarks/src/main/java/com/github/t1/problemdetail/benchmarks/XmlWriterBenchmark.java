@@ -0,0 +1,48 @@
+package com.github.t1.problemdetail.benchmarks;
+
+import com.github.t1.problemdetail.ri.lib.ProblemXml;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/** Measures streaming a problem detail body as XML */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlWriterBenchmark {
+    private final Map<String, Object> body = new LinkedHashMap<>();
+
+    {
+        body.put("type", URI.create("https://example.com/probs/out-of-credit"));
+        body.put("title", "You do not have enough credit.");
+        body.put("status", 403);
+        body.put("detail", "Your current balance is 30, but that costs 50.");
+        body.put("instance", URI.create("urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d"));
+        body.put("accounts", asList(URI.create("/account/12345"), URI.create("/account/67890")));
+        body.put("balance", 30);
+    }
+
+    @Benchmark public byte[] streaming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        new ProblemXml(body).writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,371 @@
+package com.github.t1.problemdetail.processor;
+
+import com.github.t1.problemdetail.Detail;
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.LogLevel;
+import com.github.t1.problemdetail.Logging;
+import com.github.t1.problemdetail.ProblemDetailWriter;
+import com.github.t1.problemdetail.Title;
+import com.github.t1.problemdetail.Type;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.NOTE;
+import static javax.tools.Diagnostic.Kind.WARNING;
+
+/**
+ * Generates a {@link ProblemDetailWriter} for every exception class with problem detail annotations,
+ * and registers them all in <code>META-INF/services</code>. Like at runtime, the annotations are inherited
+ * from the superclasses and interfaces, and then from their packages; nearest first.
+ * Subclasses without annotations of their own are mapped by reflection at runtime.
+ * <p>
+ * Exceptions that are not accessible from their package, or with annotated members that are <code>private</code>,
+ * not <code>public</code> but inherited from another package, have parameters, return <code>void</code>, or throw checked exceptions, are skipped;
+ * they are mapped by reflection at runtime.
+ */
+@SupportedAnnotationTypes({
+    "com.github.t1.problemdetail.Type",
+    "com.github.t1.problemdetail.Title",
+    "com.github.t1.problemdetail.Status",
+    "com.github.t1.problemdetail.Detail",
+    "com.github.t1.problemdetail.Instance",
+    "com.github.t1.problemdetail.Extension",
+    "com.github.t1.problemdetail.Logging"
+})
+public class ProblemDetailProcessor extends AbstractProcessor {
+    private static final String SERVICE_INDEX = "META-INF/services/" + ProblemDetailWriter.class.getName();
+
+    private final Set<String> writers = new TreeSet<>();
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceIndex();
+        } else {
+            Set<TypeElement> exceptions = new LinkedHashSet<>();
+            for (TypeElement annotation : annotations) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    if (element.getKind().isClass()) {
+                        exceptions.add((TypeElement) element);
+                    } else if (element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD) {
+                        exceptions.add((TypeElement) element.getEnclosingElement());
+                    }
+                }
+            }
+            roundEnv.getElementsAnnotatedWith(Logging.class).forEach(this::checkLogging);
+            exceptions.stream().filter(this::isSupported).forEach(this::generate);
+        }
+        return false;
+    }
+
+    /** At runtime, invalid values are only clamped with a warning */
+    private void checkLogging(Element element) {
+        Logging logging = element.getAnnotation(Logging.class);
+        if (!(logging.sample() >= 0.0 && logging.sample() <= 1.0))
+            processingEnv.getMessager().printMessage(ERROR, "log sample must be between 0.0 and 1.0 but is " + logging.sample(), element);
+        if (logging.maxPerSecond() < 0)
+            processingEnv.getMessager().printMessage(ERROR, "log maxPerSecond must not be negative but is " + logging.maxPerSecond(), element);
+    }
+
+    private boolean isSupported(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        if (type.getKind() != ElementKind.CLASS)
+            return false;
+        if (!processingEnv.getTypeUtils().isAssignable(type.asType(), elements.getTypeElement("java.lang.Exception").asType())) {
+            processingEnv.getMessager().printMessage(WARNING, "problem detail annotations on a non-exception", type);
+            return false;
+        }
+        for (Element outer = type; outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+            if (((TypeElement) outer).getNestingKind() == NestingKind.LOCAL
+                || ((TypeElement) outer).getNestingKind() == NestingKind.ANONYMOUS
+                || outer.getModifiers().contains(Modifier.PRIVATE))
+                return skip(type, "it's not accessible");
+        }
+        if (!type.getTypeParameters().isEmpty())
+            return skip(type, "it's generic");
+        PackageElement typePackage = elements.getPackageOf(type);
+        for (Element member : annotatedMembers(type)) {
+            if (member.getModifiers().contains(Modifier.PRIVATE))
+                return skip(type, member.getSimpleName() + " is private");
+            if (!elements.getPackageOf(member).equals(typePackage) && !member.getModifiers().contains(Modifier.PUBLIC))
+                return skip(type, member.getSimpleName() + " is inherited from another package, but not public");
+            if (member.getKind() == ElementKind.METHOD) {
+                ExecutableElement method = (ExecutableElement) member;
+                if (!method.getParameters().isEmpty())
+                    return skip(type, method.getSimpleName() + " has parameters");
+                if (method.getReturnType().getKind() == TypeKind.VOID)
+                    return skip(type, method.getSimpleName() + " returns void");
+                if (method.getThrownTypes().stream().anyMatch(this::isChecked))
+                    return skip(type, method.getSimpleName() + " throws a checked exception");
+            }
+        }
+        return true;
+    }
+
+    private boolean isChecked(TypeMirror thrown) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        return !types.isAssignable(thrown, elements.getTypeElement("java.lang.RuntimeException").asType())
+               && !types.isAssignable(thrown, elements.getTypeElement("java.lang.Error").asType());
+    }
+
+    private boolean skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(NOTE, "map by reflection, as " + reason, type);
+        return false;
+    }
+
+    private static boolean isAnnotatedMember(Element member) {
+        return (member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.METHOD)
+               && (member.getAnnotation(Detail.class) != null
+                   || member.getAnnotation(Instance.class) != null
+                   || member.getAnnotation(Extension.class) != null);
+    }
+
+    private void generate(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String exception = type.getQualifiedName().toString();
+        String writer = writerName(type);
+        String qualifiedWriter = packageName.isEmpty() ? writer : packageName + "." + writer;
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty())
+            out.append("package ").append(packageName).append(";\n\n");
+        out.append("/** Generated by ").append(ProblemDetailProcessor.class.getName()).append(" */\n");
+        out.append("public final class ").append(writer)
+            .append(" implements ").append(ProblemDetailWriter.class.getName()).append("<").append(exception).append("> {\n");
+        out.append("    @Override public Class<").append(exception).append("> exceptionType() { return ")
+            .append(exception).append(".class; }\n");
+        List<TypeElement> hierarchy = hierarchy(type);
+        String status = statusName(hierarchy);
+        if (status != null)
+            out.append("    @Override public jakarta.ws.rs.core.Response.Status status() { return jakarta.ws.rs.core.Response.Status.")
+                .append(status).append("; }\n");
+        Type annotatedType = find(hierarchy, Type.class);
+        if (annotatedType != null)
+            out.append("    @Override public String type() { return ").append(literal(annotatedType.value())).append("; }\n");
+        Title annotatedTitle = find(hierarchy, Title.class);
+        if (annotatedTitle != null)
+            out.append("    @Override public String title() { return ").append(literal(annotatedTitle.value())).append("; }\n");
+        List<Logging> logging = all(hierarchy, Logging.class);
+        String logTo = nearest(logging, Logging::to, "");
+        if (!logTo.isEmpty())
+            out.append("    @Override public String logTo() { return ").append(literal(logTo)).append("; }\n");
+        LogLevel logAt = nearest(logging, Logging::at, LogLevel.AUTO);
+        if (logAt != LogLevel.AUTO)
+            out.append("    @Override public ").append(LogLevel.class.getName()).append(" logAt() { return ")
+                .append(LogLevel.class.getName()).append(".").append(logAt.name()).append("; }\n");
+        double logSample = nearest(logging, Logging::sample, 1.0);
+        if (logSample != 1.0)
+            out.append("    @Override public double logSample() { return ").append(logSample).append("; }\n");
+        int logMaxPerSecond = nearest(logging, Logging::maxPerSecond, 0);
+        if (logMaxPerSecond != 0)
+            out.append("    @Override public int logMaxPerSecond() { return ").append(logMaxPerSecond).append("; }\n");
+        out.append("\n    @Override public void members(Members<").append(exception).append("> members) {\n");
+        appendMembers(out, type);
+        out.append("    }\n");
+        out.append("}\n");
+
+        try (Writer file = processingEnv.getFiler().createSourceFile(qualifiedWriter, type).openWriter()) {
+            file.write(out.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(WARNING, "can't write " + qualifiedWriter + ": " + e, type);
+            return;
+        }
+        writers.add(qualifiedWriter);
+    }
+
+    /** The nested class names joined with `_`, e.g. `Outer_InnerException_ProblemDetailWriter` */
+    private static String writerName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement())
+            name.insert(0, outer.getSimpleName() + "_");
+        return name + "_ProblemDetailWriter";
+    }
+
+    /** Read the mirror, so we don't need the jax-rs status enum on the processor path */
+    private static String statusName(List<TypeElement> hierarchy) {
+        for (TypeElement type : hierarchy) {
+            for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+                if (mirror.getAnnotationType().toString().equals("com.github.t1.problemdetail.Status")) {
+                    for (AnnotationValue value : mirror.getElementValues().values()) {
+                        return ((Element) value.getValue()).getSimpleName().toString();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** The type and all its supertypes, nearest first: the type, its interfaces, its superclass, etc. */
+    private static List<TypeElement> hierarchy(TypeElement type) {
+        Set<TypeElement> hierarchy = new LinkedHashSet<>();
+        for (TypeElement c = type; c != null && !c.getQualifiedName().contentEquals("java.lang.Object"); c = asTypeElement(c.getSuperclass())) {
+            hierarchy.add(c);
+            addInterfaces(hierarchy, c);
+        }
+        return new ArrayList<>(hierarchy);
+    }
+
+    private static void addInterfaces(Set<TypeElement> hierarchy, TypeElement type) {
+        for (TypeMirror mirror : type.getInterfaces()) {
+            TypeElement i = asTypeElement(mirror);
+            if (i != null && hierarchy.add(i))
+                addInterfaces(hierarchy, i);
+        }
+    }
+
+    private static TypeElement asTypeElement(TypeMirror mirror) {
+        return (mirror.getKind() == TypeKind.DECLARED) ? (TypeElement) ((DeclaredType) mirror).asElement() : null;
+    }
+
+    private static <A extends Annotation> A find(List<TypeElement> hierarchy, Class<A> annotationType) {
+        for (TypeElement type : hierarchy) {
+            A annotation = type.getAnnotation(annotationType);
+            if (annotation != null)
+                return annotation;
+        }
+        return null;
+    }
+
+    /** The annotations on the types and then on their packages, nearest first */
+    private <A extends Annotation> List<A> all(List<TypeElement> hierarchy, Class<A> annotationType) {
+        List<A> all = new ArrayList<>();
+        Set<PackageElement> packages = new LinkedHashSet<>();
+        for (TypeElement type : hierarchy) {
+            A annotation = type.getAnnotation(annotationType);
+            if (annotation != null)
+                all.add(annotation);
+            packages.add(processingEnv.getElementUtils().getPackageOf(type));
+        }
+        for (PackageElement p : packages) {
+            A annotation = p.getAnnotation(annotationType);
+            if (annotation != null)
+                all.add(annotation);
+        }
+        return all;
+    }
+
+    /** The nearest value of an annotation attribute that is not the default */
+    private static <A extends Annotation, T> T nearest(List<A> annotations, Function<A, T> attribute, T defaultValue) {
+        for (A annotation : annotations) {
+            T value = attribute.apply(annotation);
+            if (!value.equals(defaultValue))
+                return value;
+        }
+        return defaultValue;
+    }
+
+    /** The nearest annotated declaration of each member: per type in the hierarchy, the methods and then the fields */
+    private static List<Element> annotatedMembers(TypeElement type) {
+        List<Element> members = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (TypeElement declaring : hierarchy(type)) {
+            for (ElementKind kind : new ElementKind[]{ElementKind.METHOD, ElementKind.FIELD}) {
+                for (Element member : declaring.getEnclosedElements()) {
+                    if (member.getKind() == kind && isAnnotatedMember(member) && names.add(kind + ":" + member.getSimpleName()))
+                        members.add(member);
+                }
+            }
+        }
+        return members;
+    }
+
+    /** The last {@link Instance} annotated member of the nearest type that has one */
+    private static Element instance(List<Element> members) {
+        Element instance = null;
+        for (Element member : members) {
+            if (member.getAnnotation(Instance.class) == null)
+                continue;
+            if (instance != null && !instance.getEnclosingElement().equals(member.getEnclosingElement()))
+                break;
+            instance = member;
+        }
+        return instance;
+    }
+
+    private void appendMembers(StringBuilder out, TypeElement type) {
+        String exception = type.getQualifiedName().toString();
+        List<Element> members = annotatedMembers(type);
+        Element instance = instance(members);
+        for (Element member : members) {
+            String name = member.getSimpleName().toString();
+            String getter = member.getModifiers().contains(Modifier.STATIC)
+                ? "exception -> " + exception + "." + name
+                : "exception -> exception." + name;
+            if (member.getKind() == ElementKind.METHOD)
+                getter += "()";
+            if (member.getAnnotation(Detail.class) != null)
+                out.append("        members.detail(").append(literal(name)).append(", ").append(getter).append(");\n");
+            if (member == instance)
+                out.append("        members.instance(").append(literal(name)).append(", ").append(getter).append(");\n");
+            Extension extension = member.getAnnotation(Extension.class);
+            if (extension != null)
+                out.append("        members.extension(").append(literal(extension.value().isEmpty() ? name : extension.value()))
+                    .append(", ").append(literal(name)).append(", ").append(getter).append(");\n");
+        }
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    /** Merge with an existing index, so incremental builds don't lose writers that were not recompiled */
+    private void writeServiceIndex() {
+        if (writers.isEmpty())
+            return;
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_INDEX);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), UTF_8))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty() && !line.startsWith("#")).forEach(writers::add);
+            }
+        } catch (IOException e) {
+            // there is no existing index
+        }
+        try (Writer writer = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_INDEX).openWriter()) {
+            for (String name : writers)
+                writer.write(name + "\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(WARNING, "can't write " + SERVICE_INDEX + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Takes the logging off the request threads: they only put the events into a bounded, lock-free {@link RingBuffer},
+ * and a background daemon thread formats and writes them. When the buffer is full, the {@link OverflowPolicy} decides,
+ * which events get dropped; the drops are counted per level and reported as a warning whenever the buffer runs empty.
+ */
+public class AsyncLogSink implements LogSink, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncLogSink.class);
+    private static final long MAX_IDLE_NANOS = MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_NANOS = MICROSECONDS.toNanos(50);
+    private static final long MAX_CLOSE_MILLIS = 5_000;
+
+    public enum OverflowPolicy {
+        /** Make room for the new event by dropping the oldest one */
+        DROP_OLDEST,
+        /** Keep the last quarter of the buffer for warnings and errors; drop the oldest when it's full nonetheless */
+        DROP_DEBUG_FIRST,
+        /** Let the request thread wait until there is room; nothing gets dropped */
+        BLOCK
+    }
+
+    private final RingBuffer<LogEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int lowPriorityLimit;
+    private final Map<LogLevel, LongAdder> dropped = new EnumMap<>(LogLevel.class);
+    private final Thread drainer;
+    private volatile boolean idle;
+    private volatile boolean closed;
+    /** Also reported by {@link #close()}, when the drainer didn't finish in time */
+    private final AtomicLong reportedDrops = new AtomicLong();
+
+    public AsyncLogSink(int capacity, OverflowPolicy overflowPolicy) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.lowPriorityLimit = buffer.capacity() - buffer.capacity() / 4;
+        for (LogLevel level : LogLevel.values())
+            dropped.put(level, new LongAdder());
+        this.drainer = new Thread(this::drain, "problem-details-logger");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    public int getCapacity() { return buffer.capacity(); }
+
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+
+    public long getDropped() {
+        return dropped.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getDropped(LogLevel level) { return dropped.get(level).sum(); }
+
+    @Override public void log(LogEvent event) {
+        if (closed || Thread.currentThread() == drainer) {
+            // too late to enqueue, or the events of the drainer itself would wait for the drainer
+            write(event);
+        } else if (enqueue(event) && idle) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private boolean enqueue(LogEvent event) {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (!buffer.offer(event)) {
+                if (closed) {
+                    write(event);
+                    return false;
+                }
+                LockSupport.unpark(drainer);
+                LockSupport.parkNanos(this, BLOCKED_NANOS);
+            }
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_DEBUG_FIRST && isLowPriority(event) && buffer.size() >= lowPriorityLimit) {
+            drop(event);
+            return false;
+        }
+        while (!buffer.offer(event)) {
+            LogEvent oldest = buffer.poll();
+            if (oldest != null)
+                drop(oldest);
+        }
+        return true;
+    }
+
+    private static boolean isLowPriority(LogEvent event) {
+        return event.getLevel() == LogLevel.DEBUG || event.getLevel() == LogLevel.INFO;
+    }
+
+    private void drop(LogEvent event) {
+        dropped.get(event.getLevel()).increment();
+        ProblemMetrics.configured().logSkipped(event.getLevel(), ProblemMetrics.LogSkip.DROPPED);
+    }
+
+    private void drain() {
+        while (!closed) {
+            LogEvent event = buffer.poll();
+            if (event != null) {
+                write(event);
+                continue;
+            }
+            reportDrops();
+            idle = true;
+            if (buffer.isEmpty() && !closed)
+                LockSupport.parkNanos(this, MAX_IDLE_NANOS);
+            idle = false;
+        }
+        flush();
+    }
+
+    private void flush() {
+        for (LogEvent event = buffer.poll(); event != null; event = buffer.poll())
+            write(event);
+        reportDrops();
+    }
+
+    private void write(LogEvent event) {
+        try {
+            event.write();
+        } catch (RuntimeException e) {
+            // a failing appender must not stop the drainer; it would probably fail to log this, too
+            drop(event);
+        }
+    }
+
+    private void reportDrops() {
+        long total = getDropped();
+        long reported = reportedDrops.get();
+        if (total > reported && reportedDrops.compareAndSet(reported, total))
+            LOG.warn("dropped {} problem detail log events; {} in total", total - reported, total);
+    }
+
+    /** Stop the background thread and write all pending events; events logged afterwards are written directly */
+    @Override public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(MAX_CLOSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(); // events that came in while the drainer was finishing
+    }
+}
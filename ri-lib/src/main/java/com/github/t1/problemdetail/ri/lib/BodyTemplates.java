@@ -0,0 +1,156 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import lombok.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Most problems are static apart from the <code>instance</code>, e.g. a <code>NotFoundException</code> with
+ * the default message. So we render a {@link ProblemBody} with only the standard fields once per format,
+ * <code>type</code>, <code>title</code>, <code>status</code>, and <code>detail</code>, and then only splice in
+ * the escaped instance for every response.
+ * <p>
+ * The detail may be different for every exception, so the templates are kept in a cache of
+ * <code>problem-details.body-cache.size</code> entries (default 256); <code>0</code> disables the cache.
+ * It's read on every error response, so it's lock-free; when it grows too big, one thread evicts entries
+ * by the clock algorithm, i.e. approximately the least recently used ones: templates used since the last sweep
+ * get a second chance.
+ */
+final class BodyTemplates {
+    static final int SIZE = Config.getInt("body-cache.size", 256);
+    private static final Set<String> STANDARD_FIELDS = Set.of("type", "title", "status", "detail", "instance");
+    /** Renders verbatim in all formats, and is very unlikely to show up in a type, title, or detail */
+    private static final String PLACEHOLDER = "urn:problem-details:instance-placeholder:3f9c2a71";
+    private static final byte[] PLACEHOLDER_BYTES = PLACEHOLDER.getBytes(UTF_8);
+
+    private static final ConcurrentMap<Key, Template> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicBoolean EVICTING = new AtomicBoolean();
+
+    private BodyTemplates() {}
+
+    interface Renderer {
+        void render(Map<String, Object> body, OutputStream out) throws IOException;
+    }
+
+    @Value
+    private static class Key {
+        String format;
+        Object type;
+        Object title;
+        Object status;
+        Object detail;
+    }
+
+    static boolean isTemplatable(Object object) {
+        if (SIZE <= 0 || !(object instanceof ProblemBody) || !((ProblemBody) object).isTemplatable())
+            return false;
+        ProblemBody body = (ProblemBody) object;
+        return body.get("instance") != null && STANDARD_FIELDS.containsAll(body.keySet());
+    }
+
+    /**
+     * Write the body from the cached template, if it's a templatable {@link ProblemBody} with only the standard fields
+     *
+     * @return <code>false</code> if the body has to be rendered as usual
+     */
+    static boolean write(Object object, String format, OutputStream out, Renderer renderer, UnaryOperator<String> escape) throws IOException {
+        if (!isTemplatable(object))
+            return false;
+        ProblemBody body = (ProblemBody) object;
+        Object instance = body.get("instance");
+        Key key = new Key(format, body.get("type"), body.get("title"), body.get("status"), body.get("detail"));
+        Template template = CACHE.get(key);
+        if (template == null) {
+            template = Template.render(body, renderer);
+            if (CACHE.putIfAbsent(key, template) == null && CACHE.size() > SIZE)
+                evict();
+        } else if (!template.referenced) {
+            template.referenced = true; // only write when it changes, so the hot templates are not contended
+        }
+        template.writeTo(out, escape.apply(instance.toString()).getBytes(UTF_8));
+        return true;
+    }
+
+    /** If another thread is already evicting, this one doesn't have to; the cache may briefly be a bit too big */
+    private static void evict() {
+        if (!EVICTING.compareAndSet(false, true))
+            return;
+        try {
+            for (int sweep = 0; sweep < 2 && CACHE.size() > SIZE; sweep++) {
+                for (Iterator<Template> templates = CACHE.values().iterator(); templates.hasNext() && CACHE.size() > SIZE; ) {
+                    Template template = templates.next();
+                    if (template.referenced)
+                        template.referenced = false;
+                    else
+                        templates.remove();
+                }
+            }
+        } finally {
+            EVICTING.set(false);
+        }
+    }
+
+    /** The rendered body split at the instance */
+    private static class Template {
+        private final byte[][] parts;
+        /** Used since the last sweep of the eviction */
+        private volatile boolean referenced;
+
+        private static Template render(Map<String, Object> body, Renderer renderer) throws IOException {
+            Map<String, Object> copy = new LinkedHashMap<>(body); // a plain map, so we don't recurse
+            copy.put("instance", PLACEHOLDER);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            renderer.render(copy, buffer);
+            return new Template(split(buffer.toByteArray()));
+        }
+
+        private static byte[][] split(byte[] bytes) {
+            List<byte[]> parts = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i <= bytes.length - PLACEHOLDER_BYTES.length; i++) {
+                if (matches(bytes, i)) {
+                    parts.add(Arrays.copyOfRange(bytes, start, i));
+                    start = i + PLACEHOLDER_BYTES.length;
+                    i = start - 1;
+                }
+            }
+            parts.add(Arrays.copyOfRange(bytes, start, bytes.length));
+            return parts.toArray(new byte[0][]);
+        }
+
+        private static boolean matches(byte[] bytes, int offset) {
+            for (int j = 0; j < PLACEHOLDER_BYTES.length; j++)
+                if (bytes[offset + j] != PLACEHOLDER_BYTES[j])
+                    return false;
+            return true;
+        }
+
+        private Template(byte[][] parts) {
+            this.parts = parts;
+        }
+
+        private void writeTo(OutputStream out, byte[] instance) throws IOException {
+            out.write(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                out.write(instance);
+                out.write(parts[i]);
+            }
+            out.flush();
+        }
+    }
+}
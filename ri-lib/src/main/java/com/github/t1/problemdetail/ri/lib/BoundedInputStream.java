@@ -0,0 +1,66 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails when more than the {@link #MAX_BODY_SIZE} is read, so a misbehaving server can't make a client
+ * buffer megabytes only to throw an exception. Doesn't close the underlying stream.
+ */
+class BoundedInputStream extends FilterInputStream {
+    /** <code>problem-details.client.max-body-size</code> in bytes */
+    static final int MAX_BODY_SIZE = Config.getInt("client.max-body-size", 64 * 1024);
+
+    private int remaining = MAX_BODY_SIZE;
+    private boolean exceeded;
+
+    BoundedInputStream(InputStream in) {
+        super(in);
+    }
+
+    /** Has the parser failed, because the body was too big */
+    boolean isExceeded() {
+        return exceeded;
+    }
+
+    @Override public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0)
+            count(1);
+        return b;
+    }
+
+    @Override public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, (int) Math.min(len, remaining + 1L));
+        if (n > 0)
+            count(n);
+        return n;
+    }
+
+    private void count(int n) throws IOException {
+        remaining -= n;
+        if (remaining < 0) {
+            exceeded = true;
+            throw new IOException(tooLarge());
+        }
+    }
+
+    static String tooLarge() {
+        return "problem detail body exceeds the maximum of " + MAX_BODY_SIZE + " bytes";
+    }
+
+    @Override public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, remaining + 1L));
+        count((int) skipped);
+        return skipped;
+    }
+
+    @Override public boolean markSupported() {
+        return false;
+    }
+
+    @Override public void close() {
+        // don't close the entity stream
+    }
+}
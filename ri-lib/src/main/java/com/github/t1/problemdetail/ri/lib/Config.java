@@ -0,0 +1,51 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in settings of the implementation, read from system properties with the prefix <code>problem-details.</code>,
+ * e.g. <code>-Dproblem-details.logging.async=true</code>.
+ * Invalid values are logged as warnings and replaced by the default: they are read in static initializers
+ * on the error path, where an exception would break all error responses.
+ */
+final class Config {
+    private static final String PREFIX = "problem-details.";
+
+    private Config() {}
+
+    static String get(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    static boolean getBoolean(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(get(name, Boolean.toString(defaultValue)));
+    }
+
+    static int getInt(String name, int defaultValue) {
+        String value = get(name, null);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return invalid("expected an int for " + PREFIX + name + " but got " + value, defaultValue);
+        }
+    }
+
+    static <E extends Enum<E>> E getEnum(String name, E defaultValue) {
+        String value = get(name, null);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return invalid("unknown value for " + PREFIX + name + ": " + value, defaultValue);
+        }
+    }
+
+    static <T> T invalid(String message, T defaultValue) {
+        LoggerFactory.getLogger(Config.class).warn("{}; use {}", message, defaultValue);
+        return defaultValue;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Logs the full problem only for the first occurrence of a {@link ProblemFingerprint fingerprint} within a time window;
+ * later occurrences are logged as a single line referring to the fingerprint of the first one.
+ * <p>
+ * At most 10,000 fingerprints are kept: when there are more, the expired ones are removed,
+ * and if that's not enough, the oldest ones, so the fingerprints seen recently still get deduplicated.
+ */
+public class DeduplicatingLogSink implements LogSink {
+    private static final int MAX_FINGERPRINTS = 10_000;
+    /** Evict a quarter, so we don't have to do it again for the next new fingerprint */
+    private static final int EVICT_TO = MAX_FINGERPRINTS * 3 / 4;
+
+    private final LogSink delegate;
+    private final long windowMillis;
+    private final Clock clock;
+    private final ConcurrentMap<String, Occurrences> occurrences = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public DeduplicatingLogSink(LogSink delegate, Duration window) {
+        this(delegate, window, Clock.systemUTC());
+    }
+
+    public DeduplicatingLogSink(LogSink delegate, Duration window, Clock clock) {
+        this.delegate = delegate;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    @Override public void log(LogEvent event) {
+        if (event.getException() == null) {
+            delegate.log(event);
+            return;
+        }
+        String fingerprint = event.getFingerprint();
+        long count = occurrences(fingerprint).count.incrementAndGet();
+        if (count == 1) {
+            delegate.log(event.withMessage(() -> event.getMessage().get() + "\nfingerprint " + fingerprint));
+        } else {
+            delegate.log(event.withMessage(() -> "ProblemDetail: instance " + event.getInstance()
+                + " ≙ fingerprint " + fingerprint + " (" + ordinal(count) + " occurrence)"));
+        }
+    }
+
+    private Occurrences occurrences(String fingerprint) {
+        long now = clock.millis();
+        Occurrences current = occurrences.get(fingerprint);
+        if (current != null && !current.isExpired(now))
+            return current;
+        if (occurrences.size() >= MAX_FINGERPRINTS)
+            evict(now);
+        return occurrences.compute(fingerprint, (key, old) -> (old == null || old.isExpired(now)) ? new Occurrences(now) : old);
+    }
+
+    /** If another thread is already evicting, this one doesn't have to; the map may briefly be a bit too big */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true))
+            return;
+        try {
+            occurrences.values().removeIf(occurrence -> occurrence.isExpired(now));
+            int excess = occurrences.size() - EVICT_TO;
+            if (excess > 0)
+                occurrences.entrySet().stream()
+                    .sorted(comparingLong(entry -> entry.getValue().windowStart))
+                    .limit(excess)
+                    .collect(toList())
+                    .forEach(entry -> occurrences.remove(entry.getKey(), entry.getValue()));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String ordinal(long count) {
+        if (count % 100 >= 11 && count % 100 <= 13)
+            return count + "th";
+        switch ((int) (count % 10)) {
+            case 1:
+                return count + "st";
+            case 2:
+                return count + "nd";
+            case 3:
+                return count + "rd";
+            default:
+                return count + "th";
+        }
+    }
+
+    private class Occurrences {
+        private final long windowStart;
+        private final AtomicLong count = new AtomicLong();
+
+        private Occurrences(long windowStart) { this.windowStart = windowStart; }
+
+        private boolean isExpired(long now) { return now - windowStart >= windowMillis; }
+    }
+}
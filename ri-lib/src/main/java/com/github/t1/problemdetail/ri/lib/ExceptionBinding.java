@@ -0,0 +1,138 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.annotation.JsonbCreator;
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * How to create an exception of one class and fill in its {@link Instance} and {@link Extension} fields,
+ * including those of its superclasses, directly from a parsed problem detail body. Computed only once per class: the no-arg constructor is bound
+ * to a method handle, and each field to a {@link PropertyBinding}.
+ * <p>
+ * Exceptions without an accessible no-arg constructor or with a {@link JsonbCreator} are created with JSON-B,
+ * from the values of the fields by their Java names.
+ */
+final class ExceptionBinding {
+    private static final ClassValue<ExceptionBinding> CACHE = new ClassValue<>() {
+        @Override protected ExceptionBinding computeValue(Class<?> type) {
+            return new ExceptionBinding(type.asSubclass(RuntimeException.class));
+        }
+    };
+
+    static ExceptionBinding of(Class<? extends RuntimeException> type) {
+        return CACHE.get(type);
+    }
+
+    private final Class<? extends RuntimeException> type;
+    /** <code>null</code> if the exception is created with JSON-B */
+    private final MethodHandle constructor;
+    /** For JSON-B: the Java field names by the problem detail field names */
+    private final Map<String, String> fieldNames;
+    /** <code>null</code> if there is no {@link Instance} field */
+    private final PropertyBinding instance;
+    private final List<PropertyBinding> extensions;
+    /** The names of all problem detail fields that we bind */
+    private final Set<String> names;
+
+    private ExceptionBinding(Class<? extends RuntimeException> type) {
+        this.type = type;
+        this.constructor = hasCreator(type) ? null : constructor(PropertyBinding.lookup(type), type);
+        PropertyBinding instance = null;
+        List<PropertyBinding> extensions = new ArrayList<>();
+        Map<String, String> fieldNames = new HashMap<>();
+        // the fields of the subclass first, so the nearest `instance` wins
+        for (Class<?> declaring = type; declaring != RuntimeException.class; declaring = declaring.getSuperclass()) {
+            MethodHandles.Lookup lookup = PropertyBinding.lookup(declaring);
+            PropertyBinding declaredInstance = null;
+            for (Field field : declaring.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Instance.class)) {
+                    fieldNames.putIfAbsent("instance", field.getName());
+                    PropertyBinding property = (constructor == null) ? null : PropertyBinding.of(lookup, field, "instance");
+                    if (property != null)
+                        declaredInstance = property;
+                }
+                if (field.isAnnotationPresent(Extension.class)) {
+                    String annotatedName = field.getAnnotation(Extension.class).value();
+                    String name = annotatedName.isEmpty() ? field.getName() : annotatedName;
+                    fieldNames.putIfAbsent(name, field.getName());
+                    PropertyBinding property = (constructor == null) ? null : PropertyBinding.of(lookup, field, name);
+                    if (property != null)
+                        extensions.add(property);
+                }
+            }
+            if (instance == null)
+                instance = declaredInstance;
+        }
+        this.instance = instance;
+        this.extensions = unmodifiableList(extensions);
+        this.fieldNames = unmodifiableMap(fieldNames);
+        Set<String> names = new HashSet<>();
+        if (constructor == null)
+            names.addAll(fieldNames.keySet());
+        if (instance != null)
+            names.add(instance.name());
+        extensions.forEach(extension -> names.add(extension.name()));
+        this.names = unmodifiableSet(names);
+    }
+
+    private static boolean hasCreator(Class<?> type) {
+        return Stream.concat(Stream.of(type.getDeclaredConstructors()), Stream.of(type.getDeclaredMethods()))
+            .anyMatch(executable -> executable.isAnnotationPresent(JsonbCreator.class));
+    }
+
+    /** Do we need the value of this problem detail field, i.e. the <code>instance</code> or an extension */
+    boolean binds(String name) {
+        return names.contains(name);
+    }
+
+    private static MethodHandle constructor(MethodHandles.Lookup lookup, Class<? extends RuntimeException> type) {
+        try {
+            return lookup.findConstructor(type, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(RuntimeException.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @SneakyThrows
+    RuntimeException create(Map<String, ? extends JsonValue> body) {
+        if (constructor == null)
+            return createWithJsonb(body);
+        RuntimeException exception = (RuntimeException) constructor.invokeExact();
+        if (instance != null)
+            instance.set(exception, body.get("instance"));
+        for (PropertyBinding extension : extensions)
+            extension.set(exception, body.get(extension.name()));
+        return exception;
+    }
+
+    private RuntimeException createWithJsonb(Map<String, ? extends JsonValue> body) {
+        JsonObjectBuilder json = Json.createObjectBuilder();
+        fieldNames.forEach((name, fieldName) -> {
+            JsonValue value = body.get(name);
+            if (value != null)
+                json.add(fieldName, value);
+        });
+        return PropertyBinding.JSONB.fromJson(json.build().toString(), type);
+    }
+}
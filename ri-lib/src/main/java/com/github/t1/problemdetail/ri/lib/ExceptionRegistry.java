@@ -0,0 +1,178 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.ProblemDetailWriter;
+import com.github.t1.problemdetail.Type;
+import jakarta.ws.rs.NotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Maps the problem detail <code>type</code> URIs to the exception classes that a client should throw.
+ * Lookups are lock-free, and exceptions can be registered from any thread at any time.
+ * <p>
+ * There is one {@link #global() global} registry, but a client can also use its own, scoped registry
+ * that falls back to a parent registry, e.g. the global one, for the types it doesn't know itself.
+ * <p>
+ * As the <code>@Type</code> is inherited, several exceptions can have the same type URI. Then the lookup returns
+ * the same one, independent of the order of registration: the exception that declares the <code>@Type</code> itself;
+ * else the superclass; else the exception with the lexicographically first class name.
+ */
+public class ExceptionRegistry {
+    private static final ExceptionRegistry GLOBAL = new ExceptionRegistry();
+
+    static {
+        GLOBAL.register(NullPointerException.class);
+        GLOBAL.register(RuntimeException.class);
+        GLOBAL.register(NotFoundException.class);
+    }
+
+    /** The registry used by clients that don't have their own */
+    public static ExceptionRegistry global() { return GLOBAL; }
+
+    private final ExceptionRegistry parent;
+    private final ConcurrentMap<String, Class<? extends RuntimeException>> types = new ConcurrentHashMap<>();
+
+    /** An empty registry without a parent */
+    public ExceptionRegistry() {
+        this(null);
+    }
+
+    /** An empty registry that falls back to the <code>parent</code>, if that is not <code>null</code> */
+    public ExceptionRegistry(ExceptionRegistry parent) {
+        this.parent = parent;
+    }
+
+    /** @return the type URI */
+    public String register(Class<? extends RuntimeException> exceptionType) {
+        String typeUri = ProblemTypeDescriptor.of(exceptionType).getType().toString();
+        types.merge(typeUri, exceptionType, ExceptionRegistry::preferred);
+        return typeUri;
+    }
+
+    private static Class<? extends RuntimeException> preferred(Class<? extends RuntimeException> registered,
+                                                               Class<? extends RuntimeException> other) {
+        boolean registeredDeclares = registered.getDeclaredAnnotation(Type.class) != null;
+        if (registeredDeclares != (other.getDeclaredAnnotation(Type.class) != null))
+            return registeredDeclares ? registered : other;
+        if (registered.isAssignableFrom(other))
+            return registered;
+        if (other.isAssignableFrom(registered))
+            return other;
+        return (registered.getName().compareTo(other.getName()) <= 0) ? registered : other;
+    }
+
+    /**
+     * Register all runtime exceptions with a {@link ProblemDetailWriter} generated at build time
+     * that the class loader can see.
+     *
+     * @return the number of exceptions registered
+     */
+    public int registerAll(ClassLoader classLoader) {
+        int count = 0;
+        for (ProblemDetailWriter<?> writer : ProblemDetailWriters.all(classLoader)) {
+            if (registerIfRuntimeException(writer.exceptionType()))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Register all concrete, non-local runtime exceptions in the package and its sub-packages,
+     * found in the directories or jar files of the class loader.
+     *
+     * @return the number of exceptions registered
+     */
+    public int registerAll(String packageName, ClassLoader classLoader) {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = classLoader.getResources(path);
+            while (roots.hasMoreElements()) {
+                classNames.addAll(classNamesIn(roots.nextElement(), path));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't scan package " + packageName, e);
+        }
+        int count = 0;
+        for (String className : classNames) {
+            try {
+                if (registerIfRuntimeException(Class.forName(className, false, classLoader)))
+                    count++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                // not loadable, so it can't be thrown either
+            }
+        }
+        return count;
+    }
+
+    private static List<String> classNamesIn(URL root, String path) throws IOException {
+        switch (root.getProtocol()) {
+            case "file":
+                Path directory;
+                try {
+                    directory = Paths.get(root.toURI());
+                } catch (URISyntaxException e) {
+                    throw new IOException("invalid package url " + root, e);
+                }
+                try (Stream<Path> files = Files.walk(directory)) {
+                    return files
+                        .map(file -> path + "/" + directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                        .filter(ExceptionRegistry::isClassFile)
+                        .map(ExceptionRegistry::className)
+                        .collect(toList());
+                }
+            case "jar":
+                JarURLConnection connection = (JarURLConnection) root.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    return jar.stream()
+                        .map(JarEntry::getName)
+                        .filter(name -> name.startsWith(path + "/") && isClassFile(name))
+                        .map(ExceptionRegistry::className)
+                        .collect(toList());
+                }
+            default:
+                return List.of();
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private static String className(String file) {
+        return file.substring(0, file.length() - ".class".length()).replace('/', '.');
+    }
+
+    private boolean registerIfRuntimeException(Class<?> type) {
+        if (!RuntimeException.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())
+            || type.isAnonymousClass() || type.isLocalClass())
+            return false;
+        register(type.asSubclass(RuntimeException.class));
+        return true;
+    }
+
+    /** @return the registered exception class, or <code>null</code> if the type is unknown (or <code>null</code>) */
+    public Class<? extends RuntimeException> lookup(String typeUri) {
+        Class<? extends RuntimeException> type = (typeUri == null) ? null : types.get(typeUri);
+        return (type == null && parent != null) ? parent.lookup(typeUri) : type;
+    }
+}
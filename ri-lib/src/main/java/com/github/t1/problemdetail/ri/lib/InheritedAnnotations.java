@@ -0,0 +1,77 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Resolves annotations along the hierarchy of a class, nearest first: the class itself, its interfaces,
+ * its superclass, the interfaces of the superclass, etc.; and then the packages of these classes.
+ * Only used while computing the metadata of a class, so it's not on the hot path.
+ */
+final class InheritedAnnotations {
+    private InheritedAnnotations() {}
+
+    /** The class and all its supertypes, nearest first, without duplicates and without <code>Object</code> */
+    static List<Class<?>> hierarchy(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(c);
+            addInterfaces(hierarchy, c);
+        }
+        return unmodifiableList(new ArrayList<>(hierarchy));
+    }
+
+    private static void addInterfaces(Set<Class<?>> hierarchy, Class<?> type) {
+        for (Class<?> i : type.getInterfaces())
+            if (hierarchy.add(i))
+                addInterfaces(hierarchy, i);
+    }
+
+    /** The nearest annotation on a type in the hierarchy, or <code>null</code> */
+    static <A extends Annotation> A find(List<Class<?>> hierarchy, Class<A> annotationType) {
+        for (Class<?> type : hierarchy) {
+            A annotation = type.getDeclaredAnnotation(annotationType);
+            if (annotation != null)
+                return annotation;
+        }
+        return null;
+    }
+
+    /** The annotations on the types in the hierarchy and then on their packages, nearest first */
+    static <A extends Annotation> List<A> all(List<Class<?>> hierarchy, Class<A> annotationType) {
+        List<A> all = new ArrayList<>();
+        Set<Package> packages = new LinkedHashSet<>();
+        for (Class<?> type : hierarchy) {
+            A annotation = type.getDeclaredAnnotation(annotationType);
+            if (annotation != null)
+                all.add(annotation);
+            if (type.getPackage() != null)
+                packages.add(type.getPackage());
+        }
+        for (Package p : packages) {
+            A annotation = p.getAnnotation(annotationType);
+            if (annotation != null)
+                all.add(annotation);
+        }
+        return all;
+    }
+
+    /**
+     * The nearest value of an annotation attribute that is not the default,
+     * so every attribute can be inherited separately.
+     */
+    static <A extends Annotation, T> T nearest(List<A> annotations, Function<A, T> attribute, T defaultValue) {
+        for (A annotation : annotations) {
+            T value = attribute.apply(annotation);
+            if (!value.equals(defaultValue))
+                return value;
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,261 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.net.URI;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The built-in {@link InstanceFactory instance factories}. None of them blocks on a shared lock:
+ * the default random <code>uuid</code> takes its bits from a <code>SecureRandom</code> per thread,
+ * so it's unguessable; the others from the {@link ThreadLocalRandom}, so they are unique but not unguessable.
+ * <p>
+ * The {@link #configured() configured} factory is selected by the system property <code>problem-details.instance</code>:
+ * <code>uuid</code> (the default), <code>uuid-v7</code>, <code>counter</code>, <code>ulid</code>,
+ * or the name of a class implementing {@link InstanceFactory}. Without the property, the first
+ * {@link InstanceFactory} registered as {@link ServiceLoader service} is used, if there is one.
+ * The property <code>problem-details.instance.template</code> wraps the id into a URL template,
+ * e.g. to point to a logging system.
+ */
+public final class InstanceFactories {
+    private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^}]*)}");
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    /** <code>UUID.randomUUID()</code> shares one <code>SecureRandom</code>; DRBG instances don't share any state */
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(InstanceFactories::newSecureRandom);
+
+    private InstanceFactories() {}
+
+    public static InstanceFactory configured() { return Holder.CONFIGURED; }
+
+    private static class Holder {
+        private static final InstanceFactory CONFIGURED = create();
+
+        /** Invalid settings must not break all error responses, so we fall back to the default */
+        private static InstanceFactory create() {
+            try {
+                return fromConfig();
+            } catch (IllegalArgumentException e) {
+                return Config.invalid(e.getMessage(), defaultFactory());
+            }
+        }
+
+        private static InstanceFactory fromConfig() {
+            String template = Config.get("instance.template", null);
+            String name = Config.get("instance", null);
+            if (template != null)
+                return template(template, idFactory((name == null) ? "uuid" : name));
+            if (name != null)
+                return byName(name);
+            return defaultFactory();
+        }
+
+        private static InstanceFactory defaultFactory() {
+            Iterator<InstanceFactory> services = ServiceLoader.load(InstanceFactory.class).iterator();
+            return services.hasNext() ? services.next() : randomUuid();
+        }
+
+        private static Supplier<String> idFactory(String name) {
+            switch (name) {
+                case "uuid-v7":
+                    return () -> uuidV7Id().toString();
+                case "uuid":
+                    return () -> randomUuidId().toString();
+                case "counter":
+                    return counterIds(Config.get("instance.node", randomNode()));
+                case "ulid":
+                    return InstanceFactories::ulidId;
+                default:
+                    throw new IllegalArgumentException("unknown id generator for problem-details.instance.template: " + name);
+            }
+        }
+
+        private static InstanceFactory byName(String name) {
+            switch (name) {
+                case "uuid-v7":
+                    return uuidV7();
+                case "uuid":
+                    return randomUuid();
+                case "counter":
+                    return counter(Config.get("instance.node", randomNode()));
+                case "ulid":
+                    return ulid();
+                default:
+                    return instantiate(name);
+            }
+        }
+
+        private static InstanceFactory instantiate(String className) {
+            try {
+                return (InstanceFactory) Class.forName(className, true, Thread.currentThread().getContextClassLoader())
+                    .getConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+                throw new IllegalArgumentException("can't create instance factory " + className + ": " + e, e);
+            }
+        }
+    }
+
+    /** <code>urn:uuid:</code> with a random, version 4 UUID; the default */
+    public static InstanceFactory randomUuid() {
+        return exception -> URI.create("urn:uuid:" + randomUuidId());
+    }
+
+    /** Like <code>UUID.randomUUID()</code>, but from the <code>SecureRandom</code> of the current thread */
+    public static UUID randomUuidId() {
+        SecureRandom random = SECURE_RANDOM.get();
+        long mostSignificantBits = (random.nextLong() & ~0xf000L) | 0x4000L;
+        long leastSignificantBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /** <code>urn:uuid:</code> with a version 7 UUID, i.e. 48 bits of milliseconds since the epoch followed by random bits */
+    public static InstanceFactory uuidV7() {
+        return exception -> URI.create("urn:uuid:" + uuidV7Id());
+    }
+
+    public static UUID uuidV7Id() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificantBits = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0fffL);
+        long leastSignificantBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /** <code>urn:problem-instance:</code> with the node and a counter, e.g. <code>urn:problem-instance:a1b2c3d4:17</code> */
+    public static InstanceFactory counter(String node) {
+        Supplier<String> ids = counterIds(node);
+        return exception -> URI.create("urn:problem-instance:" + ids.get());
+    }
+
+    private static Supplier<String> counterIds(String node) {
+        String prefix = node + ":";
+        AtomicLong counter = new AtomicLong();
+        return () -> prefix + counter.incrementAndGet();
+    }
+
+    private static String randomNode() {
+        return String.format("%08x", ThreadLocalRandom.current().nextInt());
+    }
+
+    /** <code>urn:ulid:</code> with a ULID, i.e. 48 bits of milliseconds since the epoch and 80 random bits in Crockford's base32 */
+    public static InstanceFactory ulid() {
+        return exception -> URI.create("urn:ulid:" + ulidId());
+    }
+
+    public static String ulidId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = (System.currentTimeMillis() << 16) | (random.nextInt() & 0xffffL);
+        long low = random.nextLong();
+        char[] chars = new char[26];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD_BASE32[(int) (low & 31)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A URL template with <code>{id}</code> and <code>{fingerprint}</code> placeholders, e.g.
+     * <code>https://logs.example.com/search?q={id}</code>. The template is parsed and validated only once.
+     * The values are percent-encoded, except for the unreserved characters and <code>:</code>.
+     *
+     * @throws IllegalArgumentException if the template has an unknown placeholder or doesn't result in a valid URI
+     */
+    public static InstanceFactory template(String template, Supplier<String> ids) {
+        return new TemplateInstanceFactory(template, ids);
+    }
+
+    private static class TemplateInstanceFactory implements InstanceFactory {
+        private final List<Object> parts = new ArrayList<>();
+        private final Supplier<String> ids;
+        private final int estimatedLength;
+
+        private TemplateInstanceFactory(String template, Supplier<String> ids) {
+            this.ids = ids;
+            Matcher matcher = PLACEHOLDER.matcher(template);
+            int end = 0;
+            while (matcher.find()) {
+                if (matcher.start() > end)
+                    parts.add(template.substring(end, matcher.start()));
+                switch (matcher.group(1)) {
+                    case "id":
+                        parts.add(Placeholder.ID);
+                        break;
+                    case "fingerprint":
+                        parts.add(Placeholder.FINGERPRINT);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown placeholder {" + matcher.group(1) + "} in instance template " + template);
+                }
+                end = matcher.end();
+            }
+            if (end < template.length())
+                parts.add(template.substring(end));
+            this.estimatedLength = template.length() + 32 * (int) parts.stream().filter(part -> part instanceof Placeholder).count();
+            validate(template);
+        }
+
+        /** The values are encoded, so if a sample is valid, all instances are */
+        private void validate(String template) {
+            try {
+                URI.create(fill(() -> "0", () -> "0"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("invalid instance template " + template + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override public URI create(Exception exception) {
+            return URI.create(fill(ids, () -> ProblemFingerprint.of(exception)));
+        }
+
+        private String fill(Supplier<String> id, Supplier<String> fingerprint) {
+            StringBuilder out = new StringBuilder(estimatedLength);
+            for (Object part : parts) {
+                if (part == Placeholder.ID) {
+                    appendEncoded(out, id.get());
+                } else if (part == Placeholder.FINGERPRINT) {
+                    appendEncoded(out, fingerprint.get());
+                } else {
+                    out.append((String) part);
+                }
+            }
+            return out.toString();
+        }
+
+        private static void appendEncoded(StringBuilder out, String value) {
+            for (byte b : value.getBytes(UTF_8)) {
+                char c = (char) (b & 0xff);
+                if (isUnreserved(c) || c == ':')
+                    out.append(c);
+                else
+                    out.append('%').append(HEX[c >> 4]).append(HEX[c & 0xf]);
+            }
+        }
+
+        private static boolean isUnreserved(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+        }
+    }
+
+    private enum Placeholder {ID, FINGERPRINT}
+}
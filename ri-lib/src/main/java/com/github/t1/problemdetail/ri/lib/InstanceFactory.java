@@ -0,0 +1,15 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.net.URI;
+
+/**
+ * Creates the <code>instance</code> of a problem detail, if the exception has no
+ * {@link com.github.t1.problemdetail.Instance} annotated member. Implementations must be thread-safe,
+ * and they should not block, as they are called for every mapped exception.
+ * <p>
+ * Register a custom implementation as {@link java.util.ServiceLoader service} or
+ * select one with the system property <code>problem-details.instance</code>; see {@link InstanceFactories}.
+ */
+public interface InstanceFactory {
+    URI create(Exception exception);
+}
@@ -0,0 +1,82 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import lombok.Value;
+import lombok.With;
+import org.slf4j.Logger;
+
+import java.util.function.Supplier;
+
+/**
+ * A problem detail to be logged. The level is already resolved, i.e. it's never <code>AUTO</code> or <code>OFF</code>,
+ * and the message is formatted only when it's written.
+ */
+@Value
+public class LogEvent {
+    Logger logger;
+    LogLevel level;
+    Exception exception;
+    /** The <code>instance</code> of the problem detail, if there is one */
+    Object instance;
+    /** The {@link ProblemFingerprint} of the exception, if it's already known; see {@link #getFingerprint()} */
+    String knownFingerprint;
+    @With Supplier<String> message;
+
+    public LogEvent(Logger logger, LogLevel level, Exception exception, Object instance, Supplier<String> message) {
+        this(logger, level, exception, instance, null, message);
+    }
+
+    public LogEvent(Logger logger, LogLevel level, Exception exception, Object instance, String knownFingerprint,
+                    Supplier<String> message) {
+        this.logger = logger;
+        this.level = level;
+        this.exception = exception;
+        this.instance = instance;
+        this.knownFingerprint = knownFingerprint;
+        this.message = message;
+    }
+
+    /** The known fingerprint or, as it's expensive, computed only now */
+    public String getFingerprint() {
+        return (knownFingerprint != null || exception == null) ? knownFingerprint : ProblemFingerprint.of(exception);
+    }
+
+    public static boolean isEnabled(Logger logger, LogLevel level) {
+        switch (level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARNING:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return false;
+        }
+    }
+
+    public void write() {
+        write(message.get());
+    }
+
+    public void write(String message) {
+        switch (level) {
+            case ERROR:
+                logger.error(message);
+                break;
+            case WARNING:
+                logger.warn(message);
+                break;
+            case INFO:
+                logger.info(message);
+                break;
+            case DEBUG:
+                logger.debug(message);
+                break;
+            case AUTO:
+            case OFF:
+                break;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Decides if a problem should be logged, by {@link com.github.t1.problemdetail.Logging#sample() sampling}
+ * and a {@link com.github.t1.problemdetail.Logging#maxPerSecond() rate limit}.
+ * <p>
+ * The rate limit is a token bucket with a capacity of one second, implemented as generic cell rate algorithm:
+ * a single atomic <em>theoretical arrival time</em> moves one interval ahead for every problem logged,
+ * and a problem is suppressed, if that would move it more than a second into the future.
+ * <p>
+ * Invalid values don't fail the mapping of a problem: a sample is clamped to <code>0.0</code> to <code>1.0</code>
+ * (<code>NaN</code> to <code>1.0</code>), and a negative <code>maxPerSecond</code> means unlimited; with a warning.
+ * The annotation processor reports them as compile errors.
+ */
+public final class LogLimiter {
+    public static final LogLimiter UNLIMITED = new LogLimiter(1.0, 0);
+
+    private static final long BURST_NANOS = SECONDS.toNanos(1);
+
+    private final double sample;
+    private final long intervalNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private final LongAdder suppressed = new LongAdder();
+
+    /** Called once per exception class, as the {@link ProblemTypeDescriptor} is cached, so we warn only once */
+    public static LogLimiter of(double sample, int maxPerSecond) {
+        if (!(sample >= 0.0 && sample <= 1.0)) {
+            double clamped = (sample < 0.0) ? 0.0 : 1.0;
+            LoggerFactory.getLogger(LogLimiter.class).warn("log sample must be between 0.0 and 1.0 but is {}; use {}", sample, clamped);
+            sample = clamped;
+        }
+        if (maxPerSecond < 0) {
+            LoggerFactory.getLogger(LogLimiter.class).warn("log maxPerSecond must not be negative but is {}; use unlimited", maxPerSecond);
+            maxPerSecond = 0;
+        }
+        return (sample == 1.0 && maxPerSecond == 0) ? UNLIMITED : new LogLimiter(sample, maxPerSecond);
+    }
+
+    private LogLimiter(double sample, int maxPerSecond) {
+        this.sample = sample;
+        this.intervalNanos = (maxPerSecond == 0) ? 0 : BURST_NANOS / maxPerSecond;
+    }
+
+    public boolean tryAcquire() {
+        if (this == UNLIMITED)
+            return true;
+        if (sample < 1.0 && ThreadLocalRandom.current().nextDouble() >= sample) {
+            suppressed.increment();
+            return false;
+        }
+        if (intervalNanos == 0)
+            return true;
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival - now, 0) + now + intervalNanos;
+            if (next - now > BURST_NANOS) {
+                suppressed.increment();
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next))
+                return true;
+        }
+    }
+
+    /** The number of problems not logged so far */
+    public long getSuppressed() { return suppressed.sum(); }
+}
@@ -0,0 +1,29 @@
+package com.github.t1.problemdetail.ri.lib;
+
+/**
+ * Where {@link ProblemDetails} hand over the problems to be logged.
+ * The {@link #SYNC default} writes them directly on the request thread;
+ * see the README for how to configure the {@link AsyncLogSink}.
+ */
+public interface LogSink {
+    LogSink SYNC = LogEvent::write;
+
+    /** The sink configured by system properties; created on first use */
+    static LogSink configured() { return LogSinks.CONFIGURED; }
+
+    /**
+     * Like the {@link #configured()} sink, but always asynchronous, and dropping the oldest events
+     * instead of blocking, e.g. for event loop threads; created on first use
+     */
+    static LogSink nonBlocking() { return LogSinks.NonBlocking.SINK; }
+
+    /**
+     * Stop the background threads of the asynchronous sinks and write the pending events; later events are written
+     * directly, for everybody who uses this library. A shutdown hook does this when the JVM exits, but if this
+     * library is packaged into a single application, call it when that application is undeployed, or its class loader
+     * will leak. Don't call it, if the library is shared by several applications.
+     */
+    static void shutdown() { LogSinks.shutdown(); }
+
+    void log(LogEvent event);
+}
@@ -0,0 +1,64 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.ri.lib.AsyncLogSink.OverflowPolicy;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class LogSinks {
+    /** Declared before the sinks, as they are created in the static initializer */
+    private static final Queue<AsyncLogSink> ASYNC = new ConcurrentLinkedQueue<>();
+    private static final Thread SHUTDOWN_HOOK = new Thread(LogSinks::shutdown, "problem-details-logger-shutdown");
+    private static final AtomicBoolean HOOKED = new AtomicBoolean();
+
+    static final LogSink CONFIGURED = create(false);
+
+    private LogSinks() {}
+
+    static final class NonBlocking {
+        static final LogSink SINK = (Config.getBoolean("logging.async", false) && overflowPolicy() != OverflowPolicy.BLOCK)
+            ? CONFIGURED : create(true);
+    }
+
+    private static LogSink create(boolean nonBlocking) {
+        LogSink sink = (nonBlocking || Config.getBoolean("logging.async", false)) ? async(nonBlocking) : LogSink.SYNC;
+        if (Config.getBoolean("logging.dedup", false))
+            sink = new DeduplicatingLogSink(sink, Duration.ofSeconds(Config.getInt("logging.dedup.window", 60)));
+        return sink;
+    }
+
+    private static OverflowPolicy overflowPolicy() {
+        return Config.getEnum("logging.async.overflow", OverflowPolicy.DROP_OLDEST);
+    }
+
+    private static LogSink async(boolean nonBlocking) {
+        OverflowPolicy overflowPolicy = overflowPolicy();
+        if (nonBlocking && overflowPolicy == OverflowPolicy.BLOCK)
+            overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        AsyncLogSink sink;
+        try {
+            sink = new AsyncLogSink(Config.getInt("logging.async.capacity", 1024), overflowPolicy);
+        } catch (IllegalArgumentException e) {
+            sink = Config.invalid(e.getMessage(), new AsyncLogSink(1024, overflowPolicy));
+        }
+        ASYNC.add(sink);
+        if (HOOKED.compareAndSet(false, true))
+            Runtime.getRuntime().addShutdownHook(SHUTDOWN_HOOK);
+        return sink;
+    }
+
+    /** Close the asynchronous sinks created so far and remove the shutdown hook, so they don't keep the class loader */
+    static void shutdown() {
+        for (AsyncLogSink sink = ASYNC.poll(); sink != null; sink = ASYNC.poll())
+            sink.close();
+        if (HOOKED.compareAndSet(true, false)) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(SHUTDOWN_HOOK);
+            } catch (IllegalStateException e) {
+                // we are the shutdown hook
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the {@link ProblemMetrics#written(long, long) latency and size} of a {@link ProblemBody} written,
+ * and the {@link ProblemSerializedEvent}, if it's enabled.
+ */
+final class Metered {
+    private Metered() {}
+
+    interface Writing {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    static void write(Object body, String mediaType, OutputStream out, Writing writing) throws IOException {
+        ProblemMetrics metrics = ProblemMetrics.configured();
+        boolean metered = metrics != ProblemMetrics.NONE && body instanceof ProblemBody;
+        if (!metered && !ProblemSerializedEvent.isTypeEnabled()) {
+            writing.writeTo(out);
+            return;
+        }
+        ProblemSerializedEvent event = new ProblemSerializedEvent();
+        event.begin();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        writing.writeTo(counting);
+        event.end();
+        if (metered)
+            metrics.written(System.nanoTime() - ((ProblemBody) body).getStartNanos(), counting.count);
+        if (event.shouldCommit()) {
+            event.mediaType = mediaType;
+            event.bytes = counting.count;
+            event.template = BodyTemplates.isTemplatable(body);
+            event.commit();
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) { super(out); }
+
+        @Override public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import jakarta.ws.rs.core.Response.Status.Family;
+import jakarta.ws.rs.core.Response.StatusType;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Publishes the {@link ProblemMetrics} to a MicroProfile {@link MetricRegistry}, with the same names and tags as the
+ * {@link MicrometerProblemMetrics}. The metrics are looked up only once. Install it, e.g., in a CDI bean:
+ * <pre><code>
+ * void init(@Observes @Initialized(ApplicationScoped.class) Object event, MetricRegistry registry) {
+ *     ProblemMetrics.install(new MicroProfileProblemMetrics(registry));
+ * }
+ * </code></pre>
+ */
+public class MicroProfileProblemMetrics implements ProblemMetrics {
+    private final StatusTable<Counter> mapped;
+    private final Timer latency;
+    private final Histogram bodySize;
+    private final Map<LogLevel, Map<LogSkip, Counter>> logSkipped = new EnumMap<>(LogLevel.class);
+
+    public MicroProfileProblemMetrics(MetricRegistry registry) {
+        this.mapped = new StatusTable<>((type, status) -> registry.counter("problem.details.mapped",
+            new Tag("type", type.toString()),
+            new Tag("status", Integer.toString(status)),
+            new Tag("family", Family.familyOf(status).name().toLowerCase(Locale.ROOT))));
+        this.latency = registry.timer("problem.details.latency");
+        this.bodySize = registry.histogram("problem.details.body.size");
+        for (LogLevel level : LogLevel.values()) {
+            Map<LogSkip, Counter> reasons = new EnumMap<>(LogSkip.class);
+            for (LogSkip reason : LogSkip.values())
+                reasons.put(reason, registry.counter("problem.details.log.skipped",
+                    new Tag("level", level.name().toLowerCase(Locale.ROOT)),
+                    new Tag("reason", reason.name().toLowerCase(Locale.ROOT))));
+            logSkipped.put(level, reasons);
+        }
+    }
+
+    @Override public void mapped(URI type, StatusType status) {
+        mapped.get(type, status.getStatusCode()).inc();
+    }
+
+    @Override public void written(long nanos, long bytes) {
+        latency.update(Duration.ofNanos(nanos));
+        bodySize.update(bytes);
+    }
+
+    @Override public void logSkipped(LogLevel level, LogSkip reason) {
+        logSkipped.get(level).get(reason).inc();
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.ws.rs.core.Response.Status.Family;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Publishes the {@link ProblemMetrics} to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ * <li><code>problem.details.mapped</code>: a counter with the tags <code>type</code>, <code>status</code>, and <code>family</code></li>
+ * <li><code>problem.details.latency</code>: a timer from mapping an exception until the body was written</li>
+ * <li><code>problem.details.body.size</code>: a distribution summary of the bytes written</li>
+ * <li><code>problem.details.log.skipped</code>: a counter with the tags <code>level</code> and <code>reason</code></li>
+ * </ul>
+ * The meters are looked up only once, so recording costs only what Micrometer's striped counters cost.
+ * The no-arg constructor uses the global registry, so this class can be selected with the
+ * system property <code>problem-details.metrics</code>.
+ */
+public class MicrometerProblemMetrics implements ProblemMetrics {
+    private final StatusTable<Counter> mapped;
+    private final Timer latency;
+    private final DistributionSummary bodySize;
+    private final Map<LogLevel, Map<LogSkip, Counter>> logSkipped = new EnumMap<>(LogLevel.class);
+
+    public MicrometerProblemMetrics() {
+        this(Metrics.globalRegistry);
+    }
+
+    public MicrometerProblemMetrics(MeterRegistry registry) {
+        this.mapped = new StatusTable<>((type, status) -> Counter.builder("problem.details.mapped")
+            .description("Exceptions mapped to problem details")
+            .tag("type", type.toString())
+            .tag("status", Integer.toString(status))
+            .tag("family", Family.familyOf(status).name().toLowerCase(Locale.ROOT))
+            .register(registry));
+        this.latency = Timer.builder("problem.details.latency")
+            .description("Time from mapping an exception until the problem detail body was written")
+            .register(registry);
+        this.bodySize = DistributionSummary.builder("problem.details.body.size")
+            .description("Size of the problem detail bodies written")
+            .baseUnit("bytes")
+            .register(registry);
+        for (LogLevel level : LogLevel.values()) {
+            Map<LogSkip, Counter> reasons = new EnumMap<>(LogSkip.class);
+            for (LogSkip reason : LogSkip.values())
+                reasons.put(reason, Counter.builder("problem.details.log.skipped")
+                    .description("Problem details not logged")
+                    .tag("level", level.name().toLowerCase(Locale.ROOT))
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+            logSkipped.put(level, reasons);
+        }
+    }
+
+    @Override public void mapped(URI type, StatusType status) {
+        mapped.get(type, status.getStatusCode()).increment();
+    }
+
+    @Override public void written(long nanos, long bytes) {
+        latency.record(nanos, NANOSECONDS);
+        bodySize.record(bytes);
+    }
+
+    @Override public void logSkipped(LogLevel level, LogSkip reason) {
+        logSkipped.get(level).get(reason).increment();
+    }
+}
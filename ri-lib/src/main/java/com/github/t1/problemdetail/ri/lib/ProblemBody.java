@@ -0,0 +1,24 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.util.LinkedHashMap;
+
+/**
+ * The body of a problem detail, as built by the {@link ProblemDetails}. It remembers when the mapping started,
+ * for the {@link ProblemMetrics#written(long, long) latency}, and if the exception type has no extensions,
+ * so it may be written from a {@link BodyTemplates template}.
+ */
+class ProblemBody extends LinkedHashMap<String, Object> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient long startNanos;
+    private final boolean templatable;
+
+    ProblemBody(long startNanos, boolean templatable) {
+        this.startNanos = startNanos;
+        this.templatable = templatable;
+    }
+
+    long getStartNanos() { return startNanos; }
+
+    boolean isTemplatable() { return templatable; }
+}
@@ -0,0 +1,118 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.ProblemDetail;
+import jakarta.json.JsonException;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.annotation.JsonbProperty;
+import jakarta.json.bind.annotation.JsonbTransient;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+import lombok.SneakyThrows;
+
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import static jakarta.json.stream.JsonParser.Event.KEY_NAME;
+import static jakarta.json.stream.JsonParser.Event.START_ARRAY;
+import static jakarta.json.stream.JsonParser.Event.START_OBJECT;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Reads a problem detail body into a {@link ProblemDetail} or any subclass of it with fields for the extensions.
+ * The fields of each class (including those of the superclasses) are bound only once;
+ * members of the body without a field are skipped by the parser without being decoded.
+ * <p>
+ * A field is bound by its name or a {@link JsonbProperty}; {@link JsonbTransient} fields are not bound.
+ * Classes without an accessible no-arg constructor are read with JSON-B.
+ */
+public final class ProblemDetailJsonReader {
+    private static final JsonParserFactory PARSER_FACTORY = JsonProvider.provider().createParserFactory(emptyMap());
+
+    private static final ClassValue<ProblemDetailJsonReader> CACHE = new ClassValue<>() {
+        @Override protected ProblemDetailJsonReader computeValue(Class<?> type) {
+            return new ProblemDetailJsonReader(type.asSubclass(ProblemDetail.class));
+        }
+    };
+
+    public static <T extends ProblemDetail> T read(InputStream entityStream, Class<T> type) {
+        return type.cast(CACHE.get(type).read(entityStream));
+    }
+
+    private final Class<? extends ProblemDetail> type;
+    /** <code>null</code> if there is no accessible no-arg constructor */
+    private final MethodHandle constructor;
+    private final Map<String, PropertyBinding> properties = new HashMap<>();
+
+    private ProblemDetailJsonReader(Class<? extends ProblemDetail> type) {
+        this.type = type;
+        this.constructor = constructor(type);
+        // the fields of subclasses hide those of the superclasses
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            MethodHandles.Lookup lookup = PropertyBinding.lookup(c);
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isSynthetic() || field.isAnnotationPresent(JsonbTransient.class))
+                    continue;
+                String name = name(field);
+                if (properties.containsKey(name))
+                    continue;
+                PropertyBinding property = PropertyBinding.of(lookup, field, name);
+                if (property != null)
+                    properties.put(name, property);
+            }
+        }
+    }
+
+    private static String name(Field field) {
+        JsonbProperty annotation = field.getAnnotation(JsonbProperty.class);
+        return (annotation == null || annotation.value().isEmpty()) ? field.getName() : annotation.value();
+    }
+
+    private static MethodHandle constructor(Class<? extends ProblemDetail> type) {
+        try {
+            return PropertyBinding.lookup(type).findConstructor(type, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(ProblemDetail.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @SneakyThrows
+    private ProblemDetail read(InputStream entityStream) {
+        if (constructor == null)
+            return JsonbHolder.JSONB.fromJson(entityStream, type);
+        ProblemDetail problemDetail = (ProblemDetail) constructor.invokeExact();
+        try {
+            // don't close the parser, as that would close the entity stream
+            JsonParser parser = PARSER_FACTORY.createParser(entityStream);
+            if (parser.next() != START_OBJECT)
+                throw new IllegalArgumentException("expected a problem detail json object");
+            while (parser.next() == KEY_NAME) {
+                PropertyBinding property = properties.get(parser.getString());
+                JsonParser.Event event = parser.next();
+                if (property != null)
+                    property.set(problemDetail, parser.getValue());
+                else if (event == START_OBJECT)
+                    parser.skipObject();
+                else if (event == START_ARRAY)
+                    parser.skipArray();
+            }
+        } catch (JsonException e) {
+            throw new IllegalArgumentException("can't parse problem detail json: " + e.getMessage(), e);
+        }
+        return problemDetail;
+    }
+
+    /** Lazily created, as it's rarely needed and expensive */
+    private static class JsonbHolder {
+        private static final Jsonb JSONB = JsonbBuilder.create();
+    }
+}
@@ -1,102 +1,102 @@
 package com.github.t1.problemdetail.ri.lib;
 
-import com.github.t1.problemdetail.Extension;
-import com.github.t1.problemdetail.Instance;
-import jakarta.json.Json;
-import jakarta.json.JsonObject;
+import jakarta.json.JsonException;
 import jakarta.json.JsonObjectBuilder;
-import jakarta.json.bind.Jsonb;
-import jakarta.json.bind.JsonbBuilder;
-import jakarta.json.bind.JsonbConfig;
-import jakarta.json.bind.config.PropertyVisibilityStrategy;
-import jakarta.ws.rs.NotFoundException;
-import lombok.extern.slf4j.Slf4j;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
 
 import java.io.InputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Stream;
-
-@Slf4j
-public class ProblemDetailJsonToExceptionBuilder extends Throwable {
-    private static final Map<String, Class<? extends RuntimeException>> REGISTRY = new HashMap<>();
-
-    static {
-        register(NullPointerException.class);
-        register(RuntimeException.class);
-        register(NotFoundException.class);
-    }
 
+import static jakarta.json.stream.JsonParser.Event.KEY_NAME;
+import static jakarta.json.stream.JsonParser.Event.START_ARRAY;
+import static jakarta.json.stream.JsonParser.Event.START_OBJECT;
+import static jakarta.json.stream.JsonParser.Event.VALUE_STRING;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Reads a problem detail body and throws the exception {@link ExceptionRegistry#register(Class) registered}
+ * for its <code>type</code>, with the <code>instance</code> and extensions filled in.
+ * <p>
+ * The body is streamed: we stop reading as soon as we find a <code>type</code> that is not registered,
+ * and we only decode the fields that the exception binds; all others are skipped.
+ * Bodies bigger than <code>problem-details.client.max-body-size</code> (default 64 KiB) are rejected.
+ */
+public class ProblemDetailJsonToExceptionBuilder {
+    private static final JsonProvider PROVIDER = JsonProvider.provider();
+    private static final JsonParserFactory PARSER_FACTORY = PROVIDER.createParserFactory(emptyMap());
+
+    /** Register in the {@link ExceptionRegistry#global() global} registry */
     public static String register(Class<? extends RuntimeException> exceptionType) {
-        String typeUri = ProblemDetails.buildType(exceptionType).toString();
-        REGISTRY.put(typeUri, exceptionType);
-        return typeUri;
+        return ExceptionRegistry.global().register(exceptionType);
     }
 
+    private JsonValue typeValue;
+    private Class<? extends RuntimeException> type;
+    private ExceptionBinding binding;
+    /** Ordered, so the message for an unknown type shows the body as it was read */
+    private final Map<String, JsonValue> values = new LinkedHashMap<>();
+
     public ProblemDetailJsonToExceptionBuilder(InputStream entityStream) {
-        this.body = Json.createReader(entityStream).readObject();
-        String typeUri = body.getString("type", null);
-        this.type = REGISTRY.getOrDefault(typeUri, null);
+        this(entityStream, ExceptionRegistry.global());
     }
 
-    private final JsonObject body;
-    private final Class<? extends RuntimeException> type;
+    public ProblemDetailJsonToExceptionBuilder(InputStream entityStream, ExceptionRegistry registry) {
+        BoundedInputStream bounded = new BoundedInputStream(entityStream);
+        try {
+            // don't close the parser, as that would close the entity stream
+            read(PARSER_FACTORY.createParser(bounded), registry);
+        } catch (JsonException e) {
+            if (bounded.isExceeded())
+                throw new IllegalArgumentException(BoundedInputStream.tooLarge(), e);
+            throw new IllegalArgumentException("can't parse problem detail json: " + e.getMessage(), e);
+        }
+    }
 
-    private final JsonObjectBuilder output = Json.createObjectBuilder();
+    private void read(JsonParser parser, ExceptionRegistry registry) {
+        if (!parser.hasNext() || parser.next() != START_OBJECT)
+            return; // no type
+        while (parser.next() == KEY_NAME) {
+            String name = parser.getString();
+            JsonParser.Event event = parser.next();
+            if ("type".equals(name)) {
+                this.typeValue = parser.getValue();
+                this.type = registry.lookup((event == VALUE_STRING) ? ((JsonString) typeValue).getString() : null);
+                if (type == null)
+                    return; // we won't need anything else
+                this.binding = ExceptionBinding.of(type);
+                values.keySet().removeIf(key -> !binding.binds(key));
+            } else if (binding == null || binding.binds(name)) {
+                // the `type` is usually the first field, so we rarely have to keep values we don't need
+                values.put(name, parser.getValue());
+            } else if (event == START_OBJECT) {
+                parser.skipObject();
+            } else if (event == START_ARRAY) {
+                parser.skipArray();
+            }
+        }
+    }
 
     /**
-     * Throws an exception; if the type wasn't {@link #register(Class) registered},
-     * a {@link IllegalArgumentException} is thrown.
+     * Throws an exception; if the type is missing or wasn't {@link ExceptionRegistry#register(Class) registered},
+     * a {@link IllegalArgumentException} is thrown with the body as far as it was read, i.e. up to the <code>type</code>.
      */
     public void trigger() {
         if (type == null)
-            throw new IllegalArgumentException("no registered exception found for `type` field in " + body);
-
-        setInstance();
-        setExtensions();
+            throw new IllegalArgumentException("no registered exception found for `type` field in " + readBody());
 
-        String json = output.build().toString();
-        throw JSONB.fromJson(json, type);
+        throw binding.create(values);
     }
 
-    private void setInstance() {
-        if (!body.containsKey("instance"))
-            return;
-        String value = body.getString("instance");
-        Stream.of(type.getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(Instance.class))
-                .findAny().ifPresent(field -> output.add(field.getName(), value));
+    private String readBody() {
+        JsonObjectBuilder body = PROVIDER.createObjectBuilder();
+        values.forEach(body::add);
+        if (typeValue != null)
+            body.add("type", typeValue);
+        return body.build().toString();
     }
-
-    private void setExtensions() {
-        Stream.of(type.getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(Extension.class))
-                .forEach(field -> {
-                    String annotatedName = field.getAnnotation(Extension.class).value();
-                    String name = annotatedName.isEmpty() ? field.getName() : annotatedName;
-                    if (body.containsKey(name)) {
-                        output.add(field.getName(), body.getValue("/" + name));
-                    }
-                });
-    }
-
-    private static final PropertyVisibilityStrategy FIELD_ACCESS = new PropertyVisibilityStrategy() {
-        @Override
-        public boolean isVisible(Field field) {
-            return Modifier.isPublic(field.getModifiers()) || isOpen(field.getDeclaringClass().getModule());
-        }
-
-        private boolean isOpen(Module module) {
-            return module.getDescriptor() == null || module.getDescriptor().isOpen();
-        }
-
-        @Override
-        public boolean isVisible(Method method) {
-            return Modifier.isPublic(method.getModifiers());
-        }
-    };
-    private static final Jsonb JSONB = JsonbBuilder.create(new JsonbConfig().withPropertyVisibilityStrategy(FIELD_ACCESS));
 }
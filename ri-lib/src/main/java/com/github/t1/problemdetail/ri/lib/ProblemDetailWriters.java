@@ -0,0 +1,53 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.ProblemDetailWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link ProblemDetailWriter}s generated at build time. Nothing is cached here: a single writer is loaded
+ * by its name only while computing a {@link ProblemTypeDescriptor}, which is cached per exception class,
+ * so we don't hold on to class loaders.
+ */
+class ProblemDetailWriters {
+    /** The writer in the package of the exception, named like the nested class names joined with `_` */
+    @SuppressWarnings("unchecked")
+    static ProblemDetailWriter<Exception> find(Class<? extends Exception> exceptionType) {
+        ClassLoader classLoader = exceptionType.getClassLoader();
+        if (classLoader == null || exceptionType.isAnonymousClass() || exceptionType.isLocalClass())
+            return null;
+        try {
+            Class<?> writerType = Class.forName(writerName(exceptionType), true, classLoader);
+            if (!ProblemDetailWriter.class.isAssignableFrom(writerType))
+                return null;
+            ProblemDetailWriter<?> writer = (ProblemDetailWriter<?>) writerType.getConstructor().newInstance();
+            return (writer.exceptionType() == exceptionType) ? (ProblemDetailWriter<Exception>) writer : null;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null; // not generated (or broken), so we fall back to reflection
+        }
+    }
+
+    private static String writerName(Class<?> exceptionType) {
+        StringBuilder name = new StringBuilder(exceptionType.getSimpleName());
+        for (Class<?> outer = exceptionType.getEnclosingClass(); outer != null; outer = outer.getEnclosingClass())
+            name.insert(0, outer.getSimpleName() + "_");
+        String packageName = exceptionType.getPackage().getName();
+        return (packageName.isEmpty() ? "" : packageName + ".") + name + "_ProblemDetailWriter";
+    }
+
+    /** All writers that the class loader can see; this scans the class path every time */
+    @SuppressWarnings("rawtypes")
+    static List<ProblemDetailWriter<?>> all(ClassLoader classLoader) {
+        List<ProblemDetailWriter<?>> writers = new ArrayList<>();
+        try {
+            for (ProblemDetailWriter writer : ServiceLoader.load(ProblemDetailWriter.class, classLoader)) {
+                writers.add(writer);
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // a broken index must not break the registration of the writers we already found
+        }
+        return writers;
+    }
+}
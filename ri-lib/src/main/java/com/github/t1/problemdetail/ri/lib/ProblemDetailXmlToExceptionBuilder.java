@@ -0,0 +1,137 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.spi.JsonProvider;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Reads an <code>application/problem+xml</code> body with a StAX pull parser and throws the exception
+ * {@link ExceptionRegistry#register(Class) registered} for its <code>type</code>. Only the <code>type</code>,
+ * the <code>instance</code>, and the extensions that the exception binds are read; all other elements are skipped.
+ * Items of lists are <code>i</code> elements, as written by the {@link ProblemXml}.
+ * Like for JSON, bodies bigger than <code>problem-details.client.max-body-size</code> are rejected.
+ */
+public class ProblemDetailXmlToExceptionBuilder {
+    private static final JsonProvider JSON = JsonProvider.provider();
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private String typeUri;
+    private Class<? extends RuntimeException> type;
+    private ExceptionBinding binding;
+    private final Map<String, JsonValue> values = new HashMap<>();
+
+    public ProblemDetailXmlToExceptionBuilder(InputStream entityStream) {
+        this(entityStream, ExceptionRegistry.global());
+    }
+
+    public ProblemDetailXmlToExceptionBuilder(InputStream entityStream, ExceptionRegistry registry) {
+        BoundedInputStream bounded = new BoundedInputStream(entityStream);
+        try {
+            XMLStreamReader xml = INPUT_FACTORY.createXMLStreamReader(bounded);
+            try {
+                read(xml, registry);
+            } finally {
+                xml.close(); // doesn't close the entity stream
+            }
+        } catch (XMLStreamException e) {
+            if (bounded.isExceeded())
+                throw new IllegalArgumentException(BoundedInputStream.tooLarge(), e);
+            throw new IllegalArgumentException("can't parse problem detail xml: " + e.getMessage(), e);
+        }
+    }
+
+    private void read(XMLStreamReader xml, ExceptionRegistry registry) throws XMLStreamException {
+        xml.nextTag(); // the `problem` root element
+        while (xml.nextTag() == START_ELEMENT) {
+            String name = xml.getLocalName();
+            if ("type".equals(name)) {
+                this.typeUri = xml.getElementText().trim();
+                this.type = registry.lookup(typeUri);
+                if (type == null)
+                    return; // we won't need anything else
+                this.binding = ExceptionBinding.of(type);
+                values.keySet().removeIf(key -> !binding.binds(key));
+            } else if (binding == null || binding.binds(name)) {
+                // the `type` is usually the first element, so we rarely have to keep values we don't need
+                values.put(name, readValue(xml));
+            } else {
+                skip(xml);
+            }
+        }
+    }
+
+    private static JsonValue readValue(XMLStreamReader xml) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        JsonArrayBuilder array = null;
+        JsonObjectBuilder object = null;
+        while (true) {
+            switch (xml.next()) {
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    text.append(xml.getText());
+                    break;
+                case START_ELEMENT:
+                    String name = xml.getLocalName();
+                    JsonValue child = readValue(xml);
+                    if ("i".equals(name)) {
+                        array = (array == null) ? JSON.createArrayBuilder() : array;
+                        array.add(child);
+                    } else {
+                        object = (object == null) ? JSON.createObjectBuilder() : object;
+                        object.add(name, child);
+                    }
+                    break;
+                case END_ELEMENT:
+                    if (array != null)
+                        return array.build();
+                    if (object != null)
+                        return object.build();
+                    // the ProblemXml writes `null` as empty element
+                    return (text.length() == 0) ? JsonValue.NULL : JSON.createValue(text.toString());
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void skip(XMLStreamReader xml) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            int event = xml.next();
+            if (event == START_ELEMENT)
+                depth++;
+            else if (event == END_ELEMENT)
+                depth--;
+        }
+    }
+
+    /**
+     * Throws an exception; if the type wasn't {@link ExceptionRegistry#register(Class) registered},
+     * a {@link IllegalArgumentException} is thrown.
+     */
+    public void trigger() {
+        if (type == null)
+            throw new IllegalArgumentException("no registered exception found for `type` element " + typeUri);
+
+        throw binding.create(values);
+    }
+}
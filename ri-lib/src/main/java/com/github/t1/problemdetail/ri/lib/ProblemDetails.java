@@ -1,35 +1,20 @@
 package com.github.t1.problemdetail.ri.lib;
 
-import com.github.t1.problemdetail.Detail;
-import com.github.t1.problemdetail.Extension;
-import com.github.t1.problemdetail.Instance;
 import com.github.t1.problemdetail.LogLevel;
-import com.github.t1.problemdetail.Logging;
-import com.github.t1.problemdetail.Status;
-import com.github.t1.problemdetail.Title;
-import com.github.t1.problemdetail.Type;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor.Accessor;
 import lombok.Getter;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import jakarta.ws.rs.core.Response.StatusType;
-import jakarta.ws.rs.core.UriBuilder;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Member;
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.UUID;
 
-import static com.github.t1.problemdetail.LogLevel.AUTO;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.joining;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.Family.CLIENT_ERROR;
@@ -37,29 +22,54 @@ import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 
 /**
  * Tech stack independent collector. Template methods can be overridden to provide tech stack specifics.
+ * All metadata about the exception class is read from the {@link ProblemTypeDescriptor}.
  */
 public abstract class ProblemDetails {
     protected final Exception exception;
     protected final Class<? extends Exception> type;
+    protected final ProblemTypeDescriptor descriptor;
 
     @Getter private final StatusType status;
     @Getter private final Object body;
     @Getter private final String mediaType;
-    @Getter private final String logMessage;
+    private String logMessage;
+    /** Computed only once, if it's needed for the body; else the log sink computes it, if it needs it */
+    private String fingerprint;
+    private final long startNanos = System.nanoTime();
 
     public ProblemDetails(Exception exception) {
+        ProblemMappedEvent event = ProblemMappedEvent.beginIfEnabled();
         this.exception = exception;
         this.type = exception.getClass();
+        this.descriptor = ProblemTypeDescriptor.of(type);
+        if (event != null)
+            event.descriptorTime = event.lap();
         this.status = buildStatus();
+        if (event != null)
+            event.statusTime = event.lap();
         this.body = buildBody();
+        if (event != null)
+            event.bodyTime = event.lap();
         this.mediaType = buildResponseMediaType();
-        this.logMessage = buildLogMessage();
-
-        log(logMessage);
+        if (event != null)
+            event.mediaTypeTime = event.lap();
+
+        metrics().mapped(descriptor.getType(), status);
+        log();
+        if (event != null) {
+            event.logTime = event.lap();
+            event.exceptionClass = type;
+            event.type = descriptor.getType().toString();
+            event.status = status.getStatusCode();
+            event.cacheHit = descriptor.getCreatedNanos() - startNanos < 0;
+            event.commit();
+        }
     }
 
     protected Object buildBody() {
-        Map<String, Object> body = new LinkedHashMap<>();
+        // without extensions, the body can be written from a template
+        Map<String, Object> body = new ProblemBody(startNanos,
+            descriptor.getExtensions().isEmpty() && !ProblemFingerprint.EXTENSION);
         body.put("type", buildType());
 
         body.put("title", buildTitle());
@@ -83,8 +93,8 @@ public abstract class ProblemDetails {
     }
 
     protected StatusType buildStatus() {
-        if (type.isAnnotationPresent(Status.class)) {
-            return type.getAnnotation(Status.class).value();
+        if (descriptor.getStatus() != null) {
+            return descriptor.getStatus();
         } else if (exception instanceof IllegalArgumentException) {
             return BAD_REQUEST;
         } else {
@@ -97,50 +107,21 @@ public abstract class ProblemDetails {
     }
 
     protected URI buildType() {
-        return buildType(type);
+        return descriptor.getType();
     }
 
     public static URI buildType(Class<? extends Exception> type) {
-        return URI.create(type.isAnnotationPresent(Type.class)
-            ? type.getAnnotation(Type.class).value()
-            : "urn:problem-type:" + wordsFromTypeName(type, '-').toLowerCase());
+        return ProblemTypeDescriptor.of(type).getType();
     }
 
     protected String buildTitle() {
-        return type.isAnnotationPresent(Title.class)
-            ? type.getAnnotation(Title.class).value()
-            : wordsFromTypeName(type, ' ');
-    }
-
-    private static String wordsFromTypeName(Class<? extends Exception> type, char delimiter) {
-        String message = camelToWords(type.getSimpleName(), delimiter);
-        if (message.endsWith(delimiter + "Exception"))
-            message = message.substring(0, message.length() - 10);
-        return message;
-    }
-
-    private static String camelToWords(String input, char delimiter) {
-        StringBuilder out = new StringBuilder();
-        input.codePoints().forEach(c -> {
-            if (Character.isUpperCase(c) && out.length() > 0) {
-                out.append(delimiter);
-            }
-            out.appendCodePoint(c);
-        });
-        return out.toString();
+        return descriptor.getTitle();
     }
 
     protected String buildDetail() {
         List<Object> details = new ArrayList<>();
-        for (Method method : type.getDeclaredMethods()) {
-            if (method.isAnnotationPresent(Detail.class)) {
-                details.add(invoke(method));
-            }
-        }
-        for (Field field : type.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Detail.class)) {
-                details.add(get(field));
-            }
+        for (Accessor accessor : descriptor.getDetails()) {
+            details.add(accessor.get(exception));
         }
         return (details.isEmpty())
             ? hasDefaultMessage() ? null : exception.getMessage()
@@ -150,79 +131,52 @@ public abstract class ProblemDetails {
     /** We don't want to repeat default messages like `400 Bad Request` */
     protected abstract boolean hasDefaultMessage();
 
-    private Object invoke(Method method) {
-        try {
-            if (method.getParameterCount() != 0)
-                return invocationFailed(method, "expected no args but got " + method.getParameterCount());
-            method.setAccessible(true);
-            return method.invoke(exception);
-        } catch (IllegalAccessException e) {
-            return invocationFailed(method, e);
-        } catch (InvocationTargetException e) {
-            return invocationFailed(method, e.getTargetException());
-        }
-    }
-
-    private String invocationFailed(Method method, Object detail) {
-        return "could not invoke " + method.getDeclaringClass().getSimpleName()
-            + "." + method.getName() + ": " + detail;
-    }
-
-    private Object get(Field field) {
-        try {
-            field.setAccessible(true);
-            return field.get(exception);
-        } catch (IllegalAccessException e) {
-            return "could not get " + field;
-        }
+    protected URI buildInstance() {
+        Accessor accessor = descriptor.getInstance();
+        if (accessor == null)
+            return instanceFactory().create(exception);
+        return createSafeUri(accessor.get(exception).toString());
     }
 
-    protected URI buildInstance() {
-        String instance = null;
-        for (Method method : type.getDeclaredMethods()) {
-            if (method.isAnnotationPresent(Instance.class)) {
-                instance = invoke(method).toString();
-            }
-        }
-        for (Field field : type.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Instance.class)) {
-                instance = get(field).toString();
-            }
-        }
-        if (instance == null)
-            return URI.create("urn:uuid:" + UUID.randomUUID());
-        return createSafeUri(instance);
+    /** Defaults to the {@link InstanceFactories#configured() configured} factory */
+    protected InstanceFactory instanceFactory() {
+        return InstanceFactories.configured();
     }
 
+    /** Without a <code>UriBuilder</code>, as that needs a JAX-RS implementation */
     private URI createSafeUri(String string) {
         try {
             return new URI(string);
         } catch (URISyntaxException e) {
-            return UriBuilder.fromUri("urn:invalid-uri-syntax")
-                .queryParam("source", string)
-                .queryParam("exception", e)
-                .build();
+            return URI.create("urn:invalid-uri-syntax"
+                + "?source=" + URLEncoder.encode(string, UTF_8)
+                + "&exception=" + URLEncoder.encode(e.toString(), UTF_8));
         }
     }
 
+    /** The fingerprint extension, if enabled, is put in the alphabetic order, unless there is an extension with that name */
     protected Map<String, Object> buildExtensions() {
-        Map<String, Object> extensions = new TreeMap<>();
-        for (Method method : type.getDeclaredMethods()) {
-            if (method.isAnnotationPresent(Extension.class)) {
-                extensions.put(extensionName(method), invoke(method));
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        boolean fingerprintPending = ProblemFingerprint.EXTENSION;
+        for (Accessor accessor : descriptor.getExtensions()) {
+            if (fingerprintPending && accessor.getName().compareTo("fingerprint") >= 0) {
+                if (!accessor.getName().equals("fingerprint"))
+                    extensions.put("fingerprint", fingerprint());
+                fingerprintPending = false;
             }
+            extensions.put(accessor.getName(), accessor.get(exception));
         }
-        for (Field field : type.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Extension.class)) {
-                extensions.put(extensionName(field), get(field));
-            }
+        if (fingerprintPending) {
+            extensions.put("fingerprint", fingerprint());
         }
         return extensions;
     }
 
-    private String extensionName(Member member) {
-        String annotatedName = ((AnnotatedElement) member).getAnnotation(Extension.class).value();
-        return annotatedName.isEmpty() ? member.getName() : annotatedName;
+    private String fingerprint() {
+        if (fingerprint == null) {
+            fingerprint = ProblemFingerprint.of(exception);
+        }
+        return fingerprint;
     }
 
     protected String buildResponseMediaType() {
@@ -235,6 +189,14 @@ public abstract class ProblemDetails {
 
     protected abstract String findMediaTypeSubtype();
 
+    /** Formatted only when it's actually logged or requested */
+    public String getLogMessage() {
+        if (logMessage == null) {
+            logMessage = buildLogMessage();
+        }
+        return logMessage;
+    }
+
     private String buildLogMessage() {
         return "ProblemDetail:\n" + formatBody() + "\n"
             + "Exception";
@@ -248,64 +210,33 @@ public abstract class ProblemDetails {
             : String.valueOf(body);
     }
 
-
-    private void log(String message) {
-        Logger logger = buildLogger();
-        switch (buildLogLevel()) {
-            case AUTO:
-                if (CLIENT_ERROR.equals(status.getFamily())) {
-                    logger.debug(message);
-                } else {
-                    logger.error(message);
-                }
-                break;
-            case ERROR:
-                logger.error(message);
-                break;
-            case WARNING:
-                logger.warn(message);
-                break;
-            case INFO:
-                logger.info(message);
-                break;
-            case DEBUG:
-                logger.debug(message);
-                break;
-            case OFF:
-                break;
+    private void log() {
+        LogLevel level = effectiveLogLevel();
+        Logger logger = descriptor.getLogger();
+        if (!LogEvent.isEnabled(logger, level))
+            return;
+        if (!descriptor.getLogLimiter().tryAcquire()) {
+            metrics().logSkipped(level, ProblemMetrics.LogSkip.SUPPRESSED);
+            return;
         }
+        Object instance = (body instanceof Map) ? ((Map<?, ?>) body).get("instance") : null;
+        logSink().log(new LogEvent(logger, level, exception, instance, fingerprint, this::getLogMessage));
     }
 
-    private Logger buildLogger() {
-        Logging logging = findLoggingAnnotation();
-        return (logging == null || logging.to().isEmpty()) ? LoggerFactory.getLogger(type)
-            : LoggerFactory.getLogger(logging.to());
+    /** Defaults to the {@link LogSink#configured() configured} sink */
+    protected LogSink logSink() {
+        return LogSink.configured();
     }
 
-    private LogLevel buildLogLevel() {
-        Logging logging = findLoggingAnnotation();
-        return (logging == null) ? AUTO : logging.at();
+    /** Defaults to the {@link ProblemMetrics#configured() configured} metrics */
+    protected ProblemMetrics metrics() {
+        return ProblemMetrics.configured();
     }
 
-    private Logging findLoggingAnnotation() {
-        Logging onType = type.getAnnotation(Logging.class);
-        Logging onPackage = type.getPackage().getAnnotation(Logging.class);
-        if (onPackage == null)
-            return onType;
-        if (onType == null)
-            return onPackage;
-        return new Logging() {
-            @Override public Class<? extends Annotation> annotationType() {
-                throw new UnsupportedOperationException();
-            }
-
-            @Override public String to() {
-                return (onType.to().isEmpty()) ? onPackage.to() : onType.to();
-            }
-
-            @Override public LogLevel at() {
-                return (onType.at() == AUTO) ? onPackage.at() : onType.at();
-            }
-        };
+    private LogLevel effectiveLogLevel() {
+        LogLevel level = descriptor.getLogLevel();
+        if (level != LogLevel.AUTO)
+            return level;
+        return CLIENT_ERROR.equals(status.getFamily()) ? LogLevel.DEBUG : LogLevel.ERROR;
     }
 }
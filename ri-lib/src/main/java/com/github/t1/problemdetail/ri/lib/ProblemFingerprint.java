@@ -0,0 +1,52 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A cheap hash of where a problem comes from: the exception class and the top frames of its stack trace,
+ * the same for each cause. Problems with the same fingerprint are most probably caused by the same bug.
+ */
+public final class ProblemFingerprint {
+    /** Add the fingerprint as <code>fingerprint</code> extension to every problem detail body */
+    static final boolean EXTENSION = Config.getBoolean("fingerprint.extension", false);
+    private static final int FRAMES = Config.getInt("fingerprint.frames", 5);
+    private static final int MAX_CAUSES = 8;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProblemFingerprint() {}
+
+    public static String of(Throwable throwable) {
+        return of(throwable, FRAMES);
+    }
+
+    public static String of(Throwable throwable, int frames) {
+        long hash = FNV_OFFSET_BASIS;
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable t = throwable; t != null && seen.size() < MAX_CAUSES && seen.add(t); t = t.getCause()) {
+            hash = hash(hash, t.getClass().getName());
+            StackTraceElement[] stackTrace = t.getStackTrace();
+            for (int i = 0; i < Math.min(frames, stackTrace.length); i++) {
+                hash = hash(hash, stackTrace[i].getClassName());
+                hash = hash(hash, stackTrace[i].getMethodName());
+                hash = hash(hash, stackTrace[i].getLineNumber());
+            }
+        }
+        String hex = Long.toHexString(hash);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /** FNV-1a over the chars, which is good enough for telling stack traces apart */
+    private static long hash(long hash, String string) {
+        for (int i = 0; i < string.length(); i++)
+            hash = hash(hash, string.charAt(i));
+        return hash(hash, 0);
+    }
+
+    private static long hash(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
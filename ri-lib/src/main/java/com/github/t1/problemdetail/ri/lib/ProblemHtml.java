@@ -0,0 +1,134 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes a problem detail body as a simple html page with a table of all fields.
+ * The static parts of the page are encoded only once; all values are html-escaped.
+ */
+public class ProblemHtml {
+    private static final byte[] HEAD = ("" +
+        "<html>\n" +
+        "<head>\n" +
+        "    <meta charset=\"utf-8\">\n" +
+        "    <style>\n" +
+        "        body {\n" +
+        "            font-family: \"Fira Code\", \"Courier New\", Courier, monospace;\n" +
+        "            font-size: 14px;\n" +
+        "        }\n" +
+        "\n" +
+        "        table {\n" +
+        "            margin-top: 24pt;\n" +
+        "            border: 1px solid rgb(221, 221, 221);\n" +
+        "            border-collapse: collapse;\n" +
+        "            box-sizing: border-box;\n" +
+        "            color: rgb(51, 51, 51);\n" +
+        "        }\n" +
+        "\n" +
+        "        tr {\n" +
+        "            height: 37px;\n" +
+        "        }\n" +
+        "\n" +
+        "        td {\n" +
+        "            border: 1px solid rgb(221, 221, 221);\n" +
+        "            border-collapse: collapse;\n" +
+        "            padding: 8px 8px 0;\n" +
+        "            vertical-align: top;\n" +
+        "        }\n" +
+        "    </style>\n" +
+        "    <title>Problem Detail: ").getBytes(UTF_8);
+    private static final byte[] TITLE_TO_H1 = ("</title>\n" +
+        "</head>\n" +
+        "<body>\n" +
+        "<h1>").getBytes(UTF_8);
+    private static final byte[] H1_TO_TABLE = ("</h1>\n" +
+        "\n" +
+        "<table>\n").getBytes(UTF_8);
+    private static final byte[] ROW_START = ("" +
+        "    <tr>\n" +
+        "        <td>").getBytes(UTF_8);
+    private static final byte[] NEXT_CELL = ("</td>\n" +
+        "        <td>").getBytes(UTF_8);
+    private static final byte[] ROW_END = ("</td>\n" +
+        "    </tr>\n").getBytes(UTF_8);
+    private static final byte[] FOOT = ("" +
+        "</table>\n" +
+        "</body>\n" +
+        "</html>\n").getBytes(UTF_8);
+
+    private final Map<String, Object> problem;
+
+    public ProblemHtml(Map<String, Object> problem) {
+        this.problem = problem;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        Metered.write(problem, "text/html", out, this::render);
+    }
+
+    private void render(OutputStream out) throws IOException {
+        if (BodyTemplates.write(problem, "html", out, (body, o) -> new ProblemHtml(body).render(o), ProblemHtml::escape))
+            return;
+        byte[] title = escaped(problem.get("title"));
+        out.write(HEAD);
+        out.write(title);
+        out.write(TITLE_TO_H1);
+        out.write(title);
+        out.write(H1_TO_TABLE);
+        for (Map.Entry<String, Object> entry : problem.entrySet()) {
+            if (entry.getValue() != null) {
+                out.write(ROW_START);
+                out.write(escaped(entry.getKey()));
+                out.write(NEXT_CELL);
+                out.write(escaped(entry.getValue()));
+                out.write(ROW_END);
+            }
+        }
+        out.write(FOOT);
+        out.flush();
+    }
+
+    private static byte[] escaped(Object value) {
+        return escape(String.valueOf(value)).getBytes(UTF_8);
+    }
+
+    public static String escape(String string) {
+        int i = 0;
+        while (i < string.length() && !needsEscaping(string.charAt(i)))
+            i++;
+        if (i == string.length())
+            return string;
+        StringBuilder out = new StringBuilder(string.length() + 16).append(string, 0, i);
+        for (; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                case '\'':
+                    out.append("&#39;");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean needsEscaping(char c) {
+        return c == '&' || c == '<' || c == '>' || c == '"' || c == '\'';
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.spi.JsonProvider;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.time.temporal.TemporalAccessor;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Streams a problem detail body, i.e. nested maps, iterables and scalars, as JSON,
+ * without the reflection a generic JSON-B provider would need.
+ * Values of other types are a rare exception that we delegate to JSON-B.
+ */
+public class ProblemJson {
+    private static final JsonProvider PROVIDER = JsonProvider.provider();
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = PROVIDER.createGeneratorFactory(emptyMap());
+
+    private final Object object;
+
+    public ProblemJson(Object object) {
+        this.object = object;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Metered.write(object, "application/problem+json", outputStream, this::render);
+    }
+
+    private void render(OutputStream outputStream) throws IOException {
+        if (BodyTemplates.write(object, "json", outputStream, (body, out) -> new ProblemJson(body).render(out), ProblemJson::escape))
+            return;
+        // closing the generator would close the entity stream
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(new NonClosingOutputStream(outputStream), UTF_8)) {
+            write(generator, object);
+        }
+    }
+
+    public void writeTo(Writer writer) {
+        JsonGenerator generator = GENERATOR_FACTORY.createGenerator(writer);
+        write(generator, object);
+        generator.flush();
+    }
+
+    private static void write(JsonGenerator generator, Object value) {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.write((String) value);
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            ((Map<?, ?>) value).forEach((key, item) -> {
+                generator.writeKey(String.valueOf(key));
+                write(generator, item);
+            });
+            generator.writeEnd();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (Object item : (Iterable<?>) value)
+                write(generator, item);
+            generator.writeEnd();
+        } else if (value.getClass().isArray()) {
+            generator.writeStartArray();
+            for (int i = 0; i < Array.getLength(value); i++)
+                write(generator, Array.get(value, i));
+            generator.writeEnd();
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            generator.write(((Number) value).longValue());
+        } else if (value instanceof Float) {
+            generator.write(new BigDecimal(value.toString())); // don't widen to double: 1.12f would become 1.1200000047683716
+        } else if (value instanceof Double) {
+            generator.write((Double) value);
+        } else if (value instanceof BigDecimal) {
+            generator.write((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.write((BigInteger) value);
+        } else if (value instanceof Boolean) {
+            generator.write((Boolean) value);
+        } else if (value instanceof JsonValue) {
+            generator.write((JsonValue) value);
+        } else if (isString(value)) {
+            generator.write(value.toString());
+        } else {
+            generator.write(toJsonValue(value));
+        }
+    }
+
+    /** The content of a JSON string, without the quotes */
+    static String escape(String string) {
+        StringBuilder out = null;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                if (out == null)
+                    out = new StringBuilder(string.length() + 16).append(string, 0, i);
+                if (c < 0x20)
+                    out.append(String.format("\\u%04x", (int) c));
+                else
+                    out.append('\\').append(c);
+            } else if (out != null) {
+                out.append(c);
+            }
+        }
+        return (out == null) ? string : out.toString();
+    }
+
+    private static boolean isString(Object value) {
+        return value instanceof CharSequence || value instanceof URI || value instanceof URL || value instanceof UUID
+               || value instanceof Enum || value instanceof Character || value instanceof TemporalAccessor;
+    }
+
+    private static JsonValue toJsonValue(Object value) {
+        String json = JsonbCheck.AVAILABLE ? JsonbHolder.toJson(value) : null;
+        return (json == null) ? PROVIDER.createValue(value.toString()) : PROVIDER.createReader(new StringReader(json)).readValue();
+    }
+
+    /** Without JSON-B, every value would throw a <code>LinkageError</code>; so we find out only once */
+    private static class JsonbCheck {
+        private static final boolean AVAILABLE = check();
+
+        private static boolean check() {
+            try {
+                return JsonbHolder.JSONB != null;
+            } catch (LinkageError e) {
+                return false; // the api or an implementation is missing
+            }
+        }
+    }
+
+    /**
+     * Lazily created, as it's rarely needed, expensive, and may not even be available.
+     * Only this class references JSON-B types, so the <code>ProblemJson</code> class itself loads without it.
+     */
+    private static class JsonbHolder {
+        private static final Jsonb JSONB = JsonbBuilder.create();
+
+        /** @return <code>null</code> if JSON-B can't serialize the value */
+        private static String toJson(Object value) {
+            try {
+                return JSONB.toJson(value);
+            } catch (JsonbException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class NonClosingOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        private NonClosingOutputStream(OutputStream out) { this.out = out; }
+
+        @Override public void write(int b) throws IOException { out.write(b); }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+
+        @Override public void flush() throws IOException { out.flush(); }
+
+        @Override public void close() throws IOException { out.flush(); }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for building the {@link ProblemDetails} of an exception, with the time of every step.
+ * Disabled by default; when it's not enabled in the recording settings, the {@link ProblemDetails}
+ * don't even create it or read the clock.
+ */
+@Name("com.github.t1.problemdetail.ProblemMapped")
+@Label("Problem Mapped")
+@Description("An exception was mapped to a problem detail")
+@Category("Problem Details")
+@Enabled(false)
+@StackTrace(false)
+final class ProblemMappedEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(ProblemMappedEvent.class);
+
+    /** @return <code>null</code> if the event is not enabled */
+    static ProblemMappedEvent beginIfEnabled() {
+        if (!TYPE.isEnabled())
+            return null;
+        ProblemMappedEvent event = new ProblemMappedEvent();
+        event.begin();
+        event.lap = System.nanoTime();
+        return event;
+    }
+
+    @Label("Exception Class") Class<?> exceptionClass;
+    @Label("Type") String type;
+    @Label("Status") int status;
+    @Label("Metadata Cache Hit") boolean cacheHit;
+    @Label("Metadata Time") @Timespan long descriptorTime;
+    @Label("Status Time") @Timespan long statusTime;
+    @Label("Body Time") @Timespan long bodyTime;
+    @Label("Media Type Time") @Timespan long mediaTypeTime;
+    @Label("Log Time") @Timespan long logTime;
+
+    private transient long lap;
+
+    /** The nanoseconds since the last lap */
+    long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - lap;
+        lap = now;
+        return elapsed;
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The media type of a problem detail response negotiated from the raw <code>Accept</code> header of the request.
+ * <p>
+ * The media ranges of type <code>application</code> are ranked by their <code>q</code> value, then by their
+ * specificity, then by their order: <code>application/xml</code> results in <code>application/problem+xml</code>,
+ * <code>application/problem+*</code> or <code>application/*</code> in <code>application/problem+json</code>.
+ * Browsers send, e.g., <code>text/html, application/xhtml+xml, application/xml;q=0.9, *&#47;*;q=0.8</code>,
+ * so the extra <code>problem+</code> is acceptable only by the wildcard and that starts a download;
+ * so <code>application/xhtml+xml</code> results in <code>text/html</code>.
+ * If nothing matches, it's <code>application/problem+json</code>.
+ * <p>
+ * There are only a few distinct <code>Accept</code> headers in practice, so the result is cached for
+ * <code>problem-details.accept.cache-size</code> (default 64) of them; <code>0</code> disables the cache.
+ * When a client sends more distinct headers, the cache evicts by the clock algorithm, like the body templates,
+ * so the headers used since the last sweep stay.
+ */
+public final class ProblemMediaType {
+    public static final ProblemMediaType JSON = new ProblemMediaType("json", "application", "problem+json");
+    public static final ProblemMediaType XML = new ProblemMediaType("xml", "application", "problem+xml");
+    public static final ProblemMediaType HTML = new ProblemMediaType("xhtml+xml", "text", "html");
+
+    private static final int CACHE_SIZE = Config.getInt("accept.cache-size", 64);
+    private static final ConcurrentMap<String, Negotiated> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicBoolean EVICTING = new AtomicBoolean();
+
+    public static ProblemMediaType negotiate(String accept) {
+        if (accept == null || accept.isEmpty())
+            return JSON;
+        if (CACHE_SIZE <= 0)
+            return parse(accept);
+        Negotiated cached = CACHE.get(accept);
+        if (cached != null) {
+            if (!cached.referenced)
+                cached.referenced = true; // only write when it changes, so the common headers are not contended
+            return cached.mediaType;
+        }
+        ProblemMediaType negotiated = parse(accept);
+        if (CACHE.putIfAbsent(accept, new Negotiated(negotiated)) == null && CACHE.size() > CACHE_SIZE)
+            evict();
+        return negotiated;
+    }
+
+    /** If another thread is already evicting, this one doesn't have to; the cache may briefly be a bit too big */
+    private static void evict() {
+        if (!EVICTING.compareAndSet(false, true))
+            return;
+        try {
+            for (int sweep = 0; sweep < 2 && CACHE.size() > CACHE_SIZE; sweep++) {
+                for (Iterator<Negotiated> entries = CACHE.values().iterator(); entries.hasNext() && CACHE.size() > CACHE_SIZE; ) {
+                    Negotiated entry = entries.next();
+                    if (entry.referenced)
+                        entry.referenced = false;
+                    else
+                        entries.remove();
+                }
+            }
+        } finally {
+            EVICTING.set(false);
+        }
+    }
+
+    private static class Negotiated {
+        private final ProblemMediaType mediaType;
+        /** Used since the last sweep of the eviction */
+        private volatile boolean referenced;
+
+        private Negotiated(ProblemMediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+
+    private static ProblemMediaType parse(String accept) {
+        ProblemMediaType best = JSON;
+        double bestQuality = 0;
+        int bestSpecificity = -1;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!mediaType.startsWith("application/"))
+                continue;
+            double quality = quality(parts);
+            if (quality <= 0)
+                continue;
+            String subtype = mediaType.substring("application/".length());
+            int specificity = (subtype.equals("*") || subtype.equals("problem+*")) ? 0 : 1;
+            if (quality > bestQuality || (quality == bestQuality && specificity > bestSpecificity)) {
+                best = forSubtype(subtype);
+                bestQuality = quality;
+                bestSpecificity = specificity;
+            }
+        }
+        return best;
+    }
+
+    /** @return 0 for invalid values, so the range is ignored */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(2).trim());
+                    return (quality >= 0 && quality <= 1) ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static ProblemMediaType forSubtype(String subtype) {
+        if (subtype.startsWith("problem+"))
+            subtype = subtype.substring("problem+".length());
+        switch (subtype) {
+            case "*":
+            case "json":
+                return JSON;
+            case "xml":
+                return XML;
+            case "xhtml+xml":
+                return HTML;
+            default:
+                return new ProblemMediaType(subtype, "application", "problem+" + subtype);
+        }
+    }
+
+    private final String format;
+    private final String string;
+    private final MediaType mediaType;
+
+    private ProblemMediaType(String format, String type, String subtype) {
+        this.format = format;
+        this.string = type + "/" + subtype;
+        this.mediaType = new MediaType(type, subtype);
+    }
+
+    /** The subtype of the accepted media type, e.g. <code>json</code>, <code>xml</code>, or <code>xhtml+xml</code> */
+    public String getFormat() {
+        return format;
+    }
+
+    /** To pass on, without being parsed again */
+    public MediaType toMediaType() {
+        return mediaType;
+    }
+
+    @Override public String toString() {
+        return string;
+    }
+}
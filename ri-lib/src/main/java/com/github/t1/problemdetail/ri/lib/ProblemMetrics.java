@@ -0,0 +1,40 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.net.URI;
+
+/**
+ * Records what the problem details mapping does. All methods are called on the request thread (or the logging
+ * thread), so implementations must be thread-safe and cheap, e.g. by using striped counters like
+ * {@link java.util.concurrent.atomic.LongAdder}s.
+ * <p>
+ * The {@link #configured() configured} metrics are {@link #NONE} by default; {@link #install(ProblemMetrics) install}
+ * e.g. the {@link ProblemStatistics}, the {@link MicrometerProblemMetrics}, or the {@link MicroProfileProblemMetrics},
+ * or select a class with the system property <code>problem-details.metrics</code>,
+ * or register an implementation as {@link java.util.ServiceLoader service}.
+ */
+public interface ProblemMetrics {
+    ProblemMetrics NONE = new ProblemMetrics() {};
+
+    static ProblemMetrics configured() { return ProblemMetricsHolder.current; }
+
+    static void install(ProblemMetrics metrics) { ProblemMetricsHolder.current = metrics; }
+
+    /** An exception was mapped to a problem detail of this <code>type</code> and <code>status</code> */
+    default void mapped(URI type, StatusType status) {}
+
+    /** The body of a problem detail was written, so it took so many nanoseconds since mapping started */
+    default void written(long nanos, long bytes) {}
+
+    /** A problem detail was not logged */
+    default void logSkipped(LogLevel level, LogSkip reason) {}
+
+    enum LogSkip {
+        /** By the {@link com.github.t1.problemdetail.Logging#sample() sample} or the {@link com.github.t1.problemdetail.Logging#maxPerSecond() rate limit} */
+        SUPPRESSED,
+        /** As the buffer of the {@link AsyncLogSink} was full */
+        DROPPED
+    }
+}
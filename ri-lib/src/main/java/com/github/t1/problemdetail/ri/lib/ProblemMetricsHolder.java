@@ -0,0 +1,30 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/** Holds the {@link ProblemMetrics#configured() configured} metrics, as an interface can't have mutable fields */
+final class ProblemMetricsHolder {
+    static volatile ProblemMetrics current = create();
+
+    private ProblemMetricsHolder() {}
+
+    private static ProblemMetrics create() {
+        String name = Config.get("metrics", null);
+        ProblemMetrics metrics = (name == null) ? null : instantiate(name);
+        if (metrics != null)
+            return metrics;
+        Iterator<ProblemMetrics> services = ServiceLoader.load(ProblemMetrics.class).iterator();
+        return services.hasNext() ? services.next() : ProblemMetrics.NONE;
+    }
+
+    /** @return <code>null</code> if it can't be created, so we fall back to the default */
+    private static ProblemMetrics instantiate(String className) {
+        try {
+            return (ProblemMetrics) Class.forName(className, true, Thread.currentThread().getContextClassLoader())
+                .getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            return Config.invalid("can't create problem metrics " + className + ": " + e, null);
+        }
+    }
+}
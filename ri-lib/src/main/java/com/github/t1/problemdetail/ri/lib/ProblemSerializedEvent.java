@@ -0,0 +1,32 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for writing a problem detail body. Disabled by default, like the {@link ProblemMappedEvent}.
+ */
+@Name("com.github.t1.problemdetail.ProblemSerialized")
+@Label("Problem Serialized")
+@Description("A problem detail body was written")
+@Category("Problem Details")
+@Enabled(false)
+@StackTrace(false)
+final class ProblemSerializedEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(ProblemSerializedEvent.class);
+
+    static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+
+    @Label("Media Type") String mediaType;
+    @Label("Bytes") @DataAmount long bytes;
+    @Label("Template") boolean template;
+}
@@ -0,0 +1,109 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.LogLevel;
+import jakarta.ws.rs.core.Response.Status.Family;
+import jakarta.ws.rs.core.Response.StatusType;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ProblemMetrics} kept in memory, e.g. to be exposed by the application itself, or for tests.
+ * All counters are striped {@link LongAdder}s, so recording doesn't lock or contend.
+ */
+public class ProblemStatistics implements ProblemMetrics {
+    private final StatusTable<LongAdder> mapped = new StatusTable<>((type, status) -> new LongAdder());
+    private final Map<Family, LongAdder> families = new EnumMap<>(Family.class);
+    private final Histogram latency = new Histogram();
+    private final Histogram bodySize = new Histogram();
+    private final Map<LogLevel, Map<LogSkip, LongAdder>> logSkipped = new EnumMap<>(LogLevel.class);
+
+    public ProblemStatistics() {
+        for (Family family : Family.values())
+            families.put(family, new LongAdder());
+        for (LogLevel level : LogLevel.values()) {
+            Map<LogSkip, LongAdder> reasons = new EnumMap<>(LogSkip.class);
+            for (LogSkip reason : LogSkip.values())
+                reasons.put(reason, new LongAdder());
+            logSkipped.put(level, reasons);
+        }
+    }
+
+    @Override public void mapped(URI type, StatusType status) {
+        mapped.get(type, status.getStatusCode()).increment();
+        families.get(status.getFamily()).increment();
+    }
+
+    @Override public void written(long nanos, long bytes) {
+        latency.record(nanos);
+        bodySize.record(bytes);
+    }
+
+    @Override public void logSkipped(LogLevel level, LogSkip reason) {
+        logSkipped.get(level).get(reason).increment();
+    }
+
+    public long getMapped(URI type, int status) {
+        LongAdder counter = mapped.peek(type, status);
+        return (counter == null) ? 0 : counter.sum();
+    }
+
+    public long getMapped(Family family) { return families.get(family).sum(); }
+
+    /** The nanoseconds from mapping an exception until the body was written */
+    public Histogram getLatency() { return latency; }
+
+    /** The bytes of the bodies written */
+    public Histogram getBodySize() { return bodySize; }
+
+    public long getLogSkipped(LogLevel level, LogSkip reason) { return logSkipped.get(level).get(reason).sum(); }
+
+    /** Counts the values in buckets of powers of two, i.e. the percentiles are accurate up to a factor of two */
+    public static class Histogram {
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        private void record(long value) {
+            if (value < 0)
+                value = 0;
+            buckets[64 - Long.numberOfLeadingZeros(value) - ((value == 0) ? 0 : 1)].increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets)
+                count += bucket.sum();
+            return count;
+        }
+
+        public long getSum() { return sum.sum(); }
+
+        public long getMax() { return max.get(); }
+
+        /** The upper bound of the bucket containing the percentile, e.g. <code>0.99</code>; <code>0</code> if empty */
+        public long getPercentile(double percentile) {
+            long count = getCount();
+            if (count == 0)
+                return 0;
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank)
+                    return Math.min((i == 63) ? Long.MAX_VALUE : (2L << i) - 1, getMax());
+            }
+            return getMax();
+        }
+    }
+}
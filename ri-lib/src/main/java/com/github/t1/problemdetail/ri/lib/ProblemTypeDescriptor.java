@@ -0,0 +1,355 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.Detail;
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.LogLevel;
+import com.github.t1.problemdetail.Logging;
+import com.github.t1.problemdetail.ProblemDetailWriter;
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.Title;
+import com.github.t1.problemdetail.Type;
+import jakarta.ws.rs.core.Response.StatusType;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static com.github.t1.problemdetail.LogLevel.AUTO;
+import static com.github.t1.problemdetail.ri.lib.InheritedAnnotations.nearest;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparing;
+
+/**
+ * The problem detail metadata of an exception class, i.e. everything that can be derived from the class
+ * and its annotations without looking at an actual exception instance.
+ * The annotations are inherited from the superclasses and interfaces, and then from their packages,
+ * each attribute separately; see {@link InheritedAnnotations}.
+ * It's computed only once per exception class and can be shared between threads,
+ * so deep exception hierarchies cost nothing extra per problem.
+ * <p>
+ * If the annotation processor has generated a {@link ProblemDetailWriter} for the exception class,
+ * the metadata is taken from there, without reflection.
+ */
+@Getter
+public final class ProblemTypeDescriptor {
+    /** The slot is cheap to create, so we can {@link #peek(Class)} without reflection */
+    private static final ClassValue<AtomicReference<ProblemTypeDescriptor>> CACHE = new ClassValue<>() {
+        @Override protected AtomicReference<ProblemTypeDescriptor> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    public static ProblemTypeDescriptor of(Class<? extends Exception> type) {
+        AtomicReference<ProblemTypeDescriptor> slot = CACHE.get(type);
+        ProblemTypeDescriptor descriptor = slot.get();
+        if (descriptor == null) {
+            descriptor = new ProblemTypeDescriptor(type);
+            if (!slot.compareAndSet(null, descriptor))
+                descriptor = slot.get();
+        }
+        return descriptor;
+    }
+
+    /**
+     * The descriptor, if it has already been computed, or <code>null</code>;
+     * so a non-blocking caller can compute it on another thread.
+     */
+    public static ProblemTypeDescriptor peek(Class<? extends Exception> type) {
+        return CACHE.get(type).get();
+    }
+
+    private final Class<? extends Exception> exceptionType;
+    /** Was the metadata read from a {@link ProblemDetailWriter} generated at build time, or by reflection */
+    private final boolean generated;
+    /** <code>null</code> if the exception class is not annotated as {@link Status} */
+    private final StatusType status;
+    private final URI type;
+    private final String title;
+    private final Logger logger;
+    private final LogLevel logLevel;
+    private final LogLimiter logLimiter;
+    private final List<Accessor> details;
+    /** <code>null</code> if there is no {@link Instance} annotated member */
+    private final Accessor instance;
+    /** Sorted by name */
+    private final List<Accessor> extensions;
+    /** The {@link System#nanoTime()} when the metadata was read, to tell if the cache was hit */
+    private final long createdNanos = System.nanoTime();
+
+    private ProblemTypeDescriptor(Class<? extends Exception> exceptionType) {
+        this.exceptionType = exceptionType;
+        ProblemDetailWriter<Exception> writer = ProblemDetailWriters.find(exceptionType);
+        this.generated = (writer != null);
+        if (generated) {
+            this.status = writer.status();
+            this.type = URI.create((writer.type() != null) ? writer.type() : defaultType(exceptionType));
+            this.title = (writer.title() != null) ? writer.title() : wordsFromTypeName(exceptionType, ' ');
+            this.logger = writer.logTo().isEmpty() ? LoggerFactory.getLogger(exceptionType) : LoggerFactory.getLogger(writer.logTo());
+            this.logLevel = writer.logAt();
+            this.logLimiter = LogLimiter.of(writer.logSample(), writer.logMaxPerSecond());
+
+            GeneratedMembers members = new GeneratedMembers();
+            writer.members(members);
+            this.details = unmodifiableList(members.details);
+            this.instance = members.instance;
+            this.extensions = sortedByName(members.extensions);
+            return;
+        }
+
+        List<Class<?>> hierarchy = InheritedAnnotations.hierarchy(exceptionType);
+        Status annotatedStatus = InheritedAnnotations.find(hierarchy, Status.class);
+        this.status = (annotatedStatus == null) ? null : annotatedStatus.value();
+        Type annotatedType = InheritedAnnotations.find(hierarchy, Type.class);
+        this.type = URI.create((annotatedType == null) ? defaultType(exceptionType) : annotatedType.value());
+        Title annotatedTitle = InheritedAnnotations.find(hierarchy, Title.class);
+        this.title = (annotatedTitle == null) ? wordsFromTypeName(exceptionType, ' ') : annotatedTitle.value();
+
+        List<Logging> logging = InheritedAnnotations.all(hierarchy, Logging.class);
+        String logTo = nearest(logging, Logging::to, "");
+        this.logger = logTo.isEmpty() ? LoggerFactory.getLogger(exceptionType) : LoggerFactory.getLogger(logTo);
+        this.logLevel = nearest(logging, Logging::at, AUTO);
+        this.logLimiter = LogLimiter.of(nearest(logging, Logging::sample, 1.0), nearest(logging, Logging::maxPerSecond, 0));
+
+        // the nearest annotated declaration of a member wins; calls of methods are virtual, so overrides are called
+        List<Accessor> details = new ArrayList<>();
+        Accessor instance = null;
+        List<Accessor> extensions = new ArrayList<>();
+        Set<String> methods = new HashSet<>();
+        Set<String> fields = new HashSet<>();
+        for (Class<?> declaring : hierarchy) {
+            Accessor declaredInstance = null;
+            for (Method method : declaring.getDeclaredMethods()) {
+                if (!isAnnotatedMember(method) || !methods.add(method.getName() + "/" + method.getParameterCount()))
+                    continue;
+                if (method.isAnnotationPresent(Detail.class))
+                    details.add(new MethodAccessor(method, method.getName()));
+                if (method.isAnnotationPresent(Instance.class))
+                    declaredInstance = new MethodAccessor(method, method.getName());
+                if (method.isAnnotationPresent(Extension.class))
+                    extensions.add(new MethodAccessor(method, extensionName(method.getAnnotation(Extension.class), method.getName())));
+            }
+            for (Field field : declaring.getDeclaredFields()) {
+                if (!isAnnotatedMember(field) || !fields.add(field.getName()))
+                    continue;
+                if (field.isAnnotationPresent(Detail.class))
+                    details.add(new FieldAccessor(field, field.getName()));
+                if (field.isAnnotationPresent(Instance.class))
+                    declaredInstance = new FieldAccessor(field, field.getName());
+                if (field.isAnnotationPresent(Extension.class))
+                    extensions.add(new FieldAccessor(field, extensionName(field.getAnnotation(Extension.class), field.getName())));
+            }
+            if (instance == null)
+                instance = declaredInstance;
+        }
+        this.details = unmodifiableList(details);
+        this.instance = instance;
+        this.extensions = sortedByName(extensions);
+    }
+
+    private static boolean isAnnotatedMember(AnnotatedElement member) {
+        return member.isAnnotationPresent(Detail.class) || member.isAnnotationPresent(Instance.class)
+               || member.isAnnotationPresent(Extension.class);
+    }
+
+    /** The order of extensions is alphabetic (a stable sort), so we don't have to sort for every problem */
+    private static List<Accessor> sortedByName(List<Accessor> extensions) {
+        extensions.sort(comparing(Accessor::getName));
+        return unmodifiableList(extensions);
+    }
+
+    private class GeneratedMembers implements ProblemDetailWriter.Members<Exception> {
+        private final List<Accessor> details = new ArrayList<>();
+        private Accessor instance;
+        private final List<Accessor> extensions = new ArrayList<>();
+
+        @Override public void detail(String memberName, Function<Exception, Object> getter) {
+            details.add(new FunctionAccessor(memberName, exceptionType.getSimpleName() + "." + memberName, getter));
+        }
+
+        @Override public void instance(String memberName, Function<Exception, Object> getter) {
+            instance = new FunctionAccessor(memberName, exceptionType.getSimpleName() + "." + memberName, getter);
+        }
+
+        @Override public void extension(String name, String memberName, Function<Exception, Object> getter) {
+            extensions.add(new FunctionAccessor(name, exceptionType.getSimpleName() + "." + memberName, getter));
+        }
+    }
+
+    private static String defaultType(Class<? extends Exception> exceptionType) {
+        return "urn:problem-type:" + wordsFromTypeName(exceptionType, '-').toLowerCase();
+    }
+
+    private static String extensionName(Extension extension, String memberName) {
+        return extension.value().isEmpty() ? memberName : extension.value();
+    }
+
+    private static String wordsFromTypeName(Class<? extends Exception> type, char delimiter) {
+        String message = camelToWords(type.getSimpleName(), delimiter);
+        if (message.endsWith(delimiter + "Exception"))
+            message = message.substring(0, message.length() - 10);
+        return message;
+    }
+
+    private static String camelToWords(String input, char delimiter) {
+        StringBuilder out = new StringBuilder();
+        input.codePoints().forEach(c -> {
+            if (Character.isUpperCase(c) && out.length() > 0) {
+                out.append(delimiter);
+            }
+            out.appendCodePoint(c);
+        });
+        return out.toString();
+    }
+
+    @Override public String toString() {
+        return "ProblemTypeDescriptor:" + exceptionType.getName() + ":" + type;
+    }
+
+
+    /**
+     * Reads the value of an annotated field or method from an exception.
+     * The member is bound to a generated {@link Function} or a {@link MethodHandle} only once,
+     * so the JIT can inline the access.
+     * Failures are not thrown but returned as a description of the problem.
+     */
+    public abstract static class Accessor {
+        /** The member name, or for extensions: the extension name */
+        @Getter private final String name;
+
+        private Accessor(String name) { this.name = name; }
+
+        public abstract Object get(Exception exception);
+    }
+
+    private static class MethodAccessor extends Accessor {
+        private final Method method;
+        private final Function<Exception, Object> function;
+
+        private MethodAccessor(Method method, String name) {
+            super(name);
+            this.method = method;
+            this.function = (method.getParameterCount() == 0) ? bind(method) : null;
+        }
+
+        /**
+         * Spin a {@link Function} calling the method directly, so it's a normal, inlinable call site.
+         * If that's not possible, e.g. for static methods, we fall back to a plain method handle.
+         */
+        @SuppressWarnings("unchecked")
+        private static Function<Exception, Object> bind(Method method) {
+            try {
+                Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+                MethodHandle handle = lookup.unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                    return (Function<Exception, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                            MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                            handle, handle.type().wrap())
+                        .getTarget().invokeExact();
+                }
+                MethodHandle getter = getter(handle, method.getModifiers());
+                return exception -> invoke(getter, exception);
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+
+        @Override public Object get(Exception exception) {
+            if (method.getParameterCount() != 0)
+                return invocationFailed("expected no args but got " + method.getParameterCount());
+            if (function == null)
+                return invocationFailed("not accessible");
+            try {
+                return function.apply(exception);
+            } catch (Throwable e) { // the generated function may sneakily throw checked exceptions
+                return invocationFailed(e);
+            }
+        }
+
+        private String invocationFailed(Object detail) {
+            return "could not invoke " + method.getDeclaringClass().getSimpleName()
+                + "." + method.getName() + ": " + detail;
+        }
+    }
+
+    private static class FunctionAccessor extends Accessor {
+        private final String member;
+        private final Function<Exception, Object> function;
+
+        private FunctionAccessor(String name, String member, Function<Exception, Object> function) {
+            super(name);
+            this.member = member;
+            this.function = function;
+        }
+
+        @Override public Object get(Exception exception) {
+            try {
+                return function.apply(exception);
+            } catch (RuntimeException | Error e) {
+                return "could not invoke " + member + ": " + e;
+            }
+        }
+    }
+
+    private static class FieldAccessor extends Accessor {
+        private final Field field;
+        private final MethodHandle handle;
+
+        private FieldAccessor(Field field, String name) {
+            super(name);
+            this.field = field;
+            this.handle = unreflectGetter(field);
+        }
+
+        private static MethodHandle unreflectGetter(Field field) {
+            try {
+                field.setAccessible(true);
+                return getter(LOOKUP.unreflectGetter(field), field.getModifiers());
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        @Override public Object get(Exception exception) {
+            if (handle == null)
+                return "could not get " + field;
+            try {
+                return (Object) handle.invokeExact(exception);
+            } catch (Throwable e) {
+                return "could not get " + field + ": " + e;
+            }
+        }
+    }
+
+    @SneakyThrows(Throwable.class)
+    private static Object invoke(MethodHandle handle, Exception exception) {
+        return (Object) handle.invokeExact(exception);
+    }
+
+    /** Adapt the handle to the <code>(Exception)Object</code> type that we can <code>invokeExact</code> */
+    private static MethodHandle getter(MethodHandle handle, int modifiers) {
+        if (Modifier.isStatic(modifiers))
+            handle = MethodHandles.dropArguments(handle, 0, Exception.class);
+        return handle.asType(GETTER);
+    }
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Exception.class);
+}
@@ -1,98 +1,101 @@
 package com.github.t1.problemdetail.ri.lib;
 
 import lombok.SneakyThrows;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Map;
 
-import static javax.xml.transform.OutputKeys.ENCODING;
-import static javax.xml.transform.OutputKeys.INDENT;
-import static javax.xml.transform.OutputKeys.OMIT_XML_DECLARATION;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Streams a problem detail body, i.e. nested maps, iterables and scalars, as indented XML.
+ * Items of iterables are written as <code>i</code> elements.
+ */
 public class ProblemXml {
-    public static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+    private static final String NAMESPACE = "urn:ietf:rfc:7807";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final String[] INDENTS = new String[8];
 
-    private final Document document;
-    private Element current;
-
-    @SneakyThrows(ParserConfigurationException.class)
-    public ProblemXml(Object object) {
-        document = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder().newDocument();
-        current = document.createElementNS("urn:ietf:rfc:7807", "problem");
-        document.appendChild(current);
-
-        append(object);
-    }
-
-    @SuppressWarnings("unchecked") private void append(Object object) {
-        if (object instanceof Map) {
-            append((Map<String, Object>) object);
-        } else if (object instanceof Iterable) {
-            append((Iterable<Object>) object);
-        } else if (object != null) {
-            append(object.toString());
+    static {
+        StringBuilder indent = new StringBuilder("\n");
+        for (int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = indent.toString();
+            indent.append("    ");
         }
     }
 
-    private void append(Map<String, Object> map) {
-        Element container = current;
-        map.forEach((key, value) -> {
-            current = document.createElement(key);
-            append(value);
-            container.appendChild(current);
-        });
-        current = container;
-    }
+    private final Object object;
 
-    private void append(Iterable<Object> iterable) {
-        Element container = current;
-        iterable.forEach(item -> {
-            current = document.createElement("i");
-            append(item);
-            container.appendChild(current);
-        });
-        current = container;
+    public ProblemXml(Object object) {
+        this.object = object;
     }
 
-    private void append(String string) {
-        current.appendChild(document.createTextNode(string));
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Metered.write(object, "application/problem+xml", outputStream, this::render);
     }
 
-
-    public void writeTo(OutputStream outputStream) throws IOException {
-        OutputStreamWriter writer = new OutputStreamWriter(outputStream);
+    private void render(OutputStream outputStream) throws IOException {
+        if (BodyTemplates.write(object, "xml", outputStream, (body, out) -> new ProblemXml(body).render(out), ProblemHtml::escape))
+            return;
+        Writer writer = new OutputStreamWriter(outputStream, UTF_8);
         writeTo(writer);
+        writer.flush();
     }
 
-    @SneakyThrows(TransformerException.class)
+    @SneakyThrows(XMLStreamException.class)
     public void writeTo(Writer writer) throws IOException {
-        document.normalize();
-        // we write the `<?xml ...` declaration manually, as the OpenJDK serializer doesn't append a nl!
-        // see https://bugs.openjdk.java.net/browse/JDK-7150637
-        writer.append("<?xml version=\"").append(document.getXmlVersion()).append("\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-        Transformer transformer = transformer();
-        transformer.setOutputProperty(ENCODING, "UTF-8");
-        transformer.setOutputProperty(OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(INDENT, "yes");
-        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        // we write the `<?xml ...` declaration manually, as the StAX writer can't write `standalone`
+        writer.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(writer);
+        writeElement(xml, "problem", object, 0);
+        xml.writeCharacters("\n");
+        xml.flush();
+    }
+
+    private void writeElement(XMLStreamWriter xml, String name, Object value, int depth) throws XMLStreamException {
+        if (!(value instanceof Map || value instanceof Iterable) && value != null)
+            value = value.toString();
+        if (isEmpty(value)) {
+            xml.writeEmptyElement(name);
+            if (depth == 0)
+                xml.writeDefaultNamespace(NAMESPACE);
+            return;
+        }
+        xml.writeStartElement(name);
+        if (depth == 0)
+            xml.writeDefaultNamespace(NAMESPACE);
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                xml.writeCharacters(indent(depth + 1));
+                writeElement(xml, String.valueOf(entry.getKey()), entry.getValue(), depth + 1);
+            }
+            xml.writeCharacters(indent(depth));
+        } else if (value instanceof Iterable) {
+            for (Object item : (Iterable<?>) value) {
+                xml.writeCharacters(indent(depth + 1));
+                writeElement(xml, "i", item, depth + 1);
+            }
+            xml.writeCharacters(indent(depth));
+        } else {
+            xml.writeCharacters((String) value);
+        }
+        xml.writeEndElement();
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null
+               || (value instanceof Map && ((Map<?, ?>) value).isEmpty())
+               || (value instanceof Iterable && !((Iterable<?>) value).iterator().hasNext())
+               || (value instanceof String && ((String) value).isEmpty());
     }
 
-    private Transformer transformer() throws TransformerConfigurationException {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        transformerFactory.setAttribute("indent-number", 4);
-        return transformerFactory.newTransformer();
+    private static String indent(int depth) {
+        return (depth < INDENTS.length) ? INDENTS[depth] : "\n" + "    ".repeat(depth);
     }
 }
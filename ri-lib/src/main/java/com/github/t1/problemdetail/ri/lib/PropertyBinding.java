@@ -0,0 +1,166 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbConfig;
+import jakarta.json.bind.config.PropertyVisibilityStrategy;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.function.Function;
+
+/**
+ * Sets one field of an object from a JSON value. The setter (or the field) is bound to a method handle,
+ * and the conversion from the JSON value is chosen by the type of the field, so both are done only once.
+ * <p>
+ * Like JSON-B, a public setter is preferred over the field; non-public fields are only set, if the module of the
+ * object is open, as with the visibility strategy of our {@link #JSONB}. Values of types we don't know are converted with JSON-B.
+ */
+@Slf4j
+final class PropertyBinding {
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** A private lookup, if the module of the type is open to us; otherwise only public members are accessible */
+    static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    /** @return <code>null</code> if the field is not accessible */
+    static PropertyBinding of(MethodHandles.Lookup lookup, Field field, String name) {
+        MethodHandle setter = setter(lookup, field);
+        return (setter == null) ? null : new PropertyBinding(name, setter, field);
+    }
+
+    private final String name;
+    private final MethodHandle setter;
+    private final boolean primitive;
+    private final Function<JsonValue, Object> converter;
+
+    private PropertyBinding(String name, MethodHandle setter, Field field) {
+        this.name = name;
+        this.setter = setter.asType(SETTER);
+        this.primitive = field.getType().isPrimitive();
+        this.converter = converter(field.getGenericType());
+    }
+
+    String name() {
+        return name;
+    }
+
+    private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) {
+        try {
+            Method method = field.getDeclaringClass().getMethod("set" + capitalized(field.getName()), field.getType());
+            if (!Modifier.isStatic(method.getModifiers()))
+                return lookup.unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // use the field
+        }
+        if (Modifier.isStatic(field.getModifiers()) || !isVisible(field))
+            return null;
+        try {
+            if (Modifier.isFinal(field.getModifiers()))
+                field.setAccessible(true);
+            return lookup.unreflectSetter(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            log.debug("can't set {}: {}", field, e.toString());
+            return null;
+        }
+    }
+
+    private static String capitalized(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /** Values that can't be converted are skipped, as are <code>null</code>s for primitives */
+    @SneakyThrows
+    void set(Object target, JsonValue value) {
+        if (value == null || (value == JsonValue.NULL && primitive))
+            return;
+        Object converted;
+        try {
+            converted = (value == JsonValue.NULL) ? null : converter.apply(value);
+        } catch (RuntimeException e) {
+            log.debug("can't convert {} for {}: {}", value, name, e.toString());
+            return;
+        }
+        setter.invokeExact(target, converted);
+    }
+
+    private static Function<JsonValue, Object> converter(Type type) {
+        if (type == String.class)
+            return PropertyBinding::string;
+        if (type == boolean.class || type == Boolean.class)
+            return value -> (value == JsonValue.TRUE) || (value != JsonValue.FALSE && Boolean.parseBoolean(string(value)));
+        if (type == byte.class || type == Byte.class)
+            return value -> decimal(value).byteValue();
+        if (type == short.class || type == Short.class)
+            return value -> decimal(value).shortValue();
+        if (type == int.class || type == Integer.class)
+            return value -> decimal(value).intValue();
+        if (type == long.class || type == Long.class)
+            return value -> decimal(value).longValue();
+        if (type == float.class || type == Float.class)
+            return value -> decimal(value).floatValue();
+        if (type == double.class || type == Double.class)
+            return value -> decimal(value).doubleValue();
+        if (type == BigDecimal.class)
+            return PropertyBinding::decimal;
+        if (type == BigInteger.class)
+            return value -> decimal(value).toBigIntegerExact();
+        if (type == URI.class)
+            return value -> URI.create(string(value));
+        if (type instanceof Class && JsonValue.class.isAssignableFrom((Class<?>) type))
+            return value -> value;
+        if (type instanceof Class && ((Class<?>) type).isEnum())
+            return value -> enumValue((Class<?>) type, string(value));
+        return value -> JSONB.fromJson(value.toString(), type);
+    }
+
+    private static String string(JsonValue value) {
+        return (value instanceof JsonString) ? ((JsonString) value).getString() : value.toString();
+    }
+
+    private static BigDecimal decimal(JsonValue value) {
+        return (value instanceof JsonNumber) ? ((JsonNumber) value).bigDecimalValue() : new BigDecimal(string(value).trim());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> type, String name) {
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+
+    private static boolean isVisible(Field field) {
+        Module module = field.getDeclaringClass().getModule();
+        return Modifier.isPublic(field.getModifiers()) || module.getDescriptor() == null || module.getDescriptor().isOpen();
+    }
+
+    private static final PropertyVisibilityStrategy FIELD_ACCESS = new PropertyVisibilityStrategy() {
+        @Override
+        public boolean isVisible(Field field) {
+            return PropertyBinding.isVisible(field);
+        }
+
+        @Override
+        public boolean isVisible(Method method) {
+            return Modifier.isPublic(method.getModifiers());
+        }
+    };
+    static final Jsonb JSONB = JsonbBuilder.create(new JsonbConfig().withPropertyVisibilityStrategy(FIELD_ACCESS));
+}
@@ -0,0 +1,47 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Values per problem <code>type</code> and status code, e.g. counters, created on first use.
+ * Looking up an existing value neither locks nor allocates: there are not many types, and the status codes
+ * are an index into an array, so we don't have to box them or build a composite key.
+ */
+final class StatusTable<T> {
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    private final ConcurrentMap<URI, AtomicReferenceArray<T>> types = new ConcurrentHashMap<>();
+    private final BiFunction<URI, Integer, T> factory;
+
+    StatusTable(BiFunction<URI, Integer, T> factory) {
+        this.factory = factory;
+    }
+
+    /** Status codes out of range share one value */
+    T get(URI type, int status) {
+        AtomicReferenceArray<T> statuses = types.get(type);
+        if (statuses == null)
+            statuses = types.computeIfAbsent(type, t -> new AtomicReferenceArray<>(MAX_STATUS - MIN_STATUS + 2));
+        int index = (status < MIN_STATUS || status > MAX_STATUS) ? statuses.length() - 1 : status - MIN_STATUS;
+        T value = statuses.get(index);
+        if (value == null) {
+            statuses.compareAndSet(index, null, factory.apply(type, status));
+            value = statuses.get(index);
+        }
+        return value;
+    }
+
+    /** @return <code>null</code> if there is no value (yet) */
+    T peek(URI type, int status) {
+        AtomicReferenceArray<T> statuses = types.get(type);
+        if (statuses == null)
+            return null;
+        int index = (status < MIN_STATUS || status > MAX_STATUS) ? statuses.length() - 1 : status - MIN_STATUS;
+        return statuses.get(index);
+    }
+}
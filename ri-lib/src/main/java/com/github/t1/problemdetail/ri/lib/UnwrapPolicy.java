@@ -0,0 +1,17 @@
+package com.github.t1.problemdetail.ri.lib;
+
+/**
+ * Decides if an exception class is only a wrapper, so the problem detail should be built from its cause,
+ * e.g. for the wrappers of a reactive or messaging library. Register implementations as
+ * {@link java.util.ServiceLoader service}; the decision is made only once per class; see {@link Unwrapping}.
+ */
+public interface UnwrapPolicy {
+    Decision decide(Class<? extends Exception> type);
+
+    enum Decision {
+        UNWRAP,
+        KEEP,
+        /** Let the next policy decide */
+        ABSTAIN
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.t1.problemdetail.ri.lib;
+
+import com.github.t1.problemdetail.Unwrap;
+import com.github.t1.problemdetail.ri.lib.UnwrapPolicy.Decision;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Finds the exception to build the problem detail from, by unwrapping the causes of wrapper exceptions.
+ * If an exception class is a wrapper, is decided only once per class, in this order:
+ * <ol>
+ * <li>by the nearest {@link Unwrap} annotation, also on a superclass or interface,</li>
+ * <li>by the {@link UnwrapPolicy policies} registered as {@link ServiceLoader service},</li>
+ * <li>by the class names in the system property <code>problem-details.unwrap</code> (comma separated),
+ * or the built-in <code>EJBException</code>, <code>IllegalStateException</code>, and <code>CompletionException</code>.</li>
+ * </ol>
+ * The cause chain is followed for at most <code>problem-details.unwrap.max-depth</code> (default 8) exceptions,
+ * and never in cycles.
+ */
+public final class Unwrapping {
+    private static final int MAX_DEPTH = Config.getInt("unwrap.max-depth", 8);
+    private static final Set<String> NAMES = names();
+    private static final List<UnwrapPolicy> POLICIES = policies();
+
+    private static final ClassValue<Boolean> WRAPPERS = new ClassValue<>() {
+        @SuppressWarnings("unchecked")
+        @Override protected Boolean computeValue(Class<?> type) {
+            return isWrapper((Class<? extends Exception>) type);
+        }
+    };
+
+    private Unwrapping() {}
+
+    private static Set<String> names() {
+        Set<String> names = new HashSet<>(asList("jakarta.ejb.EJBException", "java.lang.IllegalStateException",
+            "java.util.concurrent.CompletionException"));
+        String configured = Config.get("unwrap", null);
+        if (configured != null)
+            for (String name : configured.split(","))
+                if (!name.isBlank())
+                    names.add(name.trim());
+        return names;
+    }
+
+    private static List<UnwrapPolicy> policies() {
+        List<UnwrapPolicy> policies = new ArrayList<>();
+        ServiceLoader.load(UnwrapPolicy.class).forEach(policies::add);
+        return policies;
+    }
+
+    private static boolean isWrapper(Class<? extends Exception> type) {
+        Unwrap annotation = InheritedAnnotations.find(InheritedAnnotations.hierarchy(type), Unwrap.class);
+        if (annotation != null)
+            return annotation.value();
+        for (UnwrapPolicy policy : POLICIES) {
+            Decision decision = policy.decide(type);
+            if (decision != Decision.ABSTAIN)
+                return decision == Decision.UNWRAP;
+        }
+        return NAMES.contains(type.getName());
+    }
+
+    public static boolean isWrapper(Exception exception) {
+        return WRAPPERS.get(exception.getClass());
+    }
+
+    /** The innermost cause that is an exception, while the exceptions are wrappers; or the exception itself */
+    public static Exception unwrap(Exception exception) {
+        Exception[] seen = null;
+        for (int depth = 0; depth < MAX_DEPTH && isWrapper(exception); depth++) {
+            Throwable cause = exception.getCause();
+            if (!(cause instanceof Exception)) // implies not null
+                break;
+            if (seen == null)
+                seen = new Exception[MAX_DEPTH];
+            seen[depth] = exception;
+            if (contains(seen, depth, cause))
+                break;
+            exception = (Exception) cause;
+        }
+        return exception;
+    }
+
+    private static boolean contains(Exception[] seen, int depth, Throwable cause) {
+        for (int i = 0; i <= depth; i++)
+            if (seen[i] == cause)
+                return true;
+        return false;
+    }
+}
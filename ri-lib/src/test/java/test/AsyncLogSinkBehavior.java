@@ -0,0 +1,153 @@
+package test;
+
+import com.github.t1.problemdetail.LogLevel;
+import com.github.t1.problemdetail.ri.lib.AsyncLogSink;
+import com.github.t1.problemdetail.ri.lib.LogEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.t1.problemdetail.LogLevel.DEBUG;
+import static com.github.t1.problemdetail.LogLevel.ERROR;
+import static com.github.t1.problemdetail.ri.lib.AsyncLogSink.OverflowPolicy.BLOCK;
+import static com.github.t1.problemdetail.ri.lib.AsyncLogSink.OverflowPolicy.DROP_DEBUG_FIRST;
+import static com.github.t1.problemdetail.ri.lib.AsyncLogSink.OverflowPolicy.DROP_OLDEST;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AsyncLogSinkBehavior {
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+    private final Logger logger = mock(Logger.class);
+    private final CountDownLatch drainerBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseDrainer = new CountDownLatch(1);
+    private AsyncLogSink sink;
+
+    {
+        doAnswer(invocation -> record(invocation.getArgument(0))).when(logger).error(anyString());
+        doAnswer(invocation -> record(invocation.getArgument(0))).when(logger).debug(anyString());
+    }
+
+    private Object record(String message) {
+        messages.add(message);
+        threads.add(Thread.currentThread().getName());
+        return null;
+    }
+
+    @AfterEach void tearDown() {
+        releaseDrainer.countDown();
+        sink.close();
+    }
+
+    private void log(LogLevel level, String message) {
+        sink.log(new LogEvent(logger, level, null, null, () -> message));
+    }
+
+    /** The drainer formats this event and then waits, so the following events pile up */
+    private void blockDrainer() throws InterruptedException {
+        sink.log(new LogEvent(logger, ERROR, null, null, () -> {
+            drainerBlocked.countDown();
+            await(releaseDrainer);
+            return "blocker";
+        }));
+        then(drainerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            then(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test void shouldWriteInBackground() {
+        sink = new AsyncLogSink(8, DROP_OLDEST);
+
+        log(ERROR, "e1");
+        log(DEBUG, "d1");
+        log(ERROR, "e2");
+        sink.close();
+
+        then(messages).containsExactly("e1", "d1", "e2");
+        then(threads).containsOnly("problem-details-logger");
+        then(sink.getDropped()).isZero();
+    }
+
+    @Test void shouldRoundCapacityToPowerOfTwo() {
+        sink = new AsyncLogSink(5, DROP_OLDEST);
+
+        then(sink.getCapacity()).isEqualTo(8);
+    }
+
+    @Test void shouldDropOldest() throws InterruptedException {
+        sink = new AsyncLogSink(4, DROP_OLDEST);
+        blockDrainer();
+
+        for (int i = 1; i <= 6; i++)
+            log(ERROR, "e" + i);
+        releaseDrainer.countDown();
+        sink.close();
+
+        then(messages).containsExactly("blocker", "e3", "e4", "e5", "e6");
+        then(sink.getDropped()).isEqualTo(2);
+        then(sink.getDropped(ERROR)).isEqualTo(2);
+    }
+
+    @Test void shouldDropDebugFirst() throws InterruptedException {
+        sink = new AsyncLogSink(4, DROP_DEBUG_FIRST);
+        blockDrainer();
+
+        log(DEBUG, "d1");
+        log(DEBUG, "d2");
+        log(DEBUG, "d3");
+        log(DEBUG, "d4"); // only errors may take the last quarter
+        log(ERROR, "e1");
+        log(ERROR, "e2"); // full: drops the oldest
+        releaseDrainer.countDown();
+        sink.close();
+
+        then(messages).containsExactly("blocker", "d2", "d3", "e1", "e2");
+        then(sink.getDropped(DEBUG)).isEqualTo(2);
+        then(sink.getDropped(ERROR)).isZero();
+    }
+
+    @Test void shouldBlockWhenFull() throws InterruptedException {
+        sink = new AsyncLogSink(2, BLOCK);
+        blockDrainer();
+        log(ERROR, "e1");
+        log(ERROR, "e2");
+
+        CountDownLatch logged = new CountDownLatch(1);
+        Thread requestThread = new Thread(() -> {
+            log(ERROR, "e3");
+            logged.countDown();
+        });
+        requestThread.start();
+
+        then(logged.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        releaseDrainer.countDown();
+        await(logged);
+        sink.close();
+
+        then(messages).containsExactly("blocker", "e1", "e2", "e3");
+        then(sink.getDropped()).isZero();
+    }
+
+    @Test void shouldWriteDirectlyAfterClose() {
+        sink = new AsyncLogSink(4, DROP_OLDEST);
+        sink.close();
+
+        log(ERROR, "late");
+
+        then(messages).containsExactly("late");
+        then(threads).containsExactly(Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,121 @@
+package test;
+
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemHtml;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import com.github.t1.problemdetail.ri.lib.ProblemXml;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BodyTemplateBehavior {
+    private static class StaticException extends RuntimeException {
+        StaticException(String message) { super(message); }
+    }
+
+    private static class ExtendedException extends RuntimeException {
+        @Extension String code = "some-code";
+    }
+
+    @Test void shouldWriteJsonFromTemplate() throws IOException {
+        thenTemplateIsLikeFullRendering("json");
+    }
+
+    @Test void shouldWriteXmlFromTemplate() throws IOException {
+        thenTemplateIsLikeFullRendering("xml");
+    }
+
+    @Test void shouldWriteHtmlFromTemplate() throws IOException {
+        thenTemplateIsLikeFullRendering("html");
+    }
+
+    private void thenTemplateIsLikeFullRendering(String format) throws IOException {
+        for (String message : new String[]{"first message", "second \"message\" <&>", "first message"}) {
+            for (String instance : new String[]{"urn:uuid:1", "https://example.org/problems?id=2&x=y", "urn:uuid:1"}) {
+                Map<String, Object> body = body(new StaticException(message), instance);
+
+                String templated = write(format, body);
+
+                then(templated).isEqualTo(write(format, new LinkedHashMap<>(body)))
+                    .contains(message.replace("\"", "").substring(0, 5));
+            }
+        }
+    }
+
+    @Test void shouldWriteCorrectlyWhileEvictingConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String message = "message " + (i % 400); // more than fit in the cache
+                String instance = "urn:uuid:" + i;
+                futures.add(executor.submit(() -> {
+                    Map<String, Object> body = body(new StaticException(message), instance);
+                    then(write("json", body)).isEqualTo(write("json", new LinkedHashMap<>(body)));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void shouldWriteExtensions() throws IOException {
+        Map<String, Object> body = body(new ExtendedException(), "urn:uuid:1");
+
+        then(write("json", body)).contains("\"code\":\"some-code\"");
+    }
+
+    @Test void shouldWriteFieldsAddedToTheBody() throws IOException {
+        write("json", body(new StaticException("message"), "urn:uuid:1"));
+        Map<String, Object> body = body(new StaticException("message"), "urn:uuid:2");
+        body.put("added", "value");
+
+        then(write("json", body)).contains("\"instance\":\"urn:uuid:2\"", "\"added\":\"value\"");
+    }
+
+    private static Map<String, Object> body(Exception exception, String instance) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) new ProblemDetails(exception) {
+            @Override protected boolean hasDefaultMessage() { return false; }
+
+            @Override protected String findMediaTypeSubtype() { return "json"; }
+
+            @Override protected URI buildInstance() { return URI.create(instance); }
+        }.getBody();
+        return body;
+    }
+
+    private static String write(String format, Map<String, Object> body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        switch (format) {
+            case "json":
+                new ProblemJson(body).writeTo(out);
+                break;
+            case "xml":
+                new ProblemXml(body).writeTo(out);
+                break;
+            case "html":
+                new ProblemHtml(body).writeTo(out);
+                break;
+            default:
+                throw new IllegalArgumentException(format);
+        }
+        return out.toString(UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package test;
+
+import com.github.t1.problemdetail.ri.lib.DeduplicatingLogSink;
+import com.github.t1.problemdetail.ri.lib.LogEvent;
+import com.github.t1.problemdetail.ri.lib.ProblemFingerprint;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.t1.problemdetail.LogLevel.ERROR;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.Mockito.mock;
+
+class DeduplicatingLogSinkBehavior {
+    private final Logger logger = mock(Logger.class);
+    private final List<String> messages = new ArrayList<>();
+    private final MutableClock clock = new MutableClock();
+    private final DeduplicatingLogSink sink = new DeduplicatingLogSink(event -> messages.add(event.getMessage().get()),
+        Duration.ofMinutes(1), clock);
+
+    private static Exception exceptionFromLineA() { return new IllegalStateException("a"); }
+
+    private static Exception exceptionFromLineB() { return new IllegalStateException("b"); }
+
+    private void log(Exception exception, String instance) {
+        sink.log(new LogEvent(logger, ERROR, exception, URI.create(instance), () -> "full " + instance));
+    }
+
+    @Test void shouldHaveSameFingerprintForSameSite() {
+        then(ProblemFingerprint.of(exceptionFromLineA())).isEqualTo(ProblemFingerprint.of(exceptionFromLineA()));
+    }
+
+    @Test void shouldHaveHexFingerprint() {
+        then(ProblemFingerprint.of(exceptionFromLineA())).matches("[0-9a-f]{16}");
+    }
+
+    @Test void shouldHaveDifferentFingerprintForDifferentSite() {
+        then(ProblemFingerprint.of(exceptionFromLineA())).isNotEqualTo(ProblemFingerprint.of(exceptionFromLineB()));
+    }
+
+    @Test void shouldHaveDifferentFingerprintForDifferentCause() {
+        Exception withoutCause = exceptionFromLineA();
+        Exception withCause = exceptionFromLineA();
+        withCause.initCause(new RuntimeException());
+
+        then(ProblemFingerprint.of(withCause)).isNotEqualTo(ProblemFingerprint.of(withoutCause));
+    }
+
+    @Test void shouldSurviveCausalCycle() {
+        Exception outer = exceptionFromLineA();
+        Exception inner = new RuntimeException(outer);
+        outer.initCause(inner);
+
+        then(ProblemFingerprint.of(outer)).isNotEqualTo(ProblemFingerprint.of(inner));
+    }
+
+    /** The callers are part of the fingerprint, so we have to create them all in the same line */
+    private static List<Exception> sameExceptions(int count) {
+        List<Exception> exceptions = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            exceptions.add(exceptionFromLineA());
+        return exceptions;
+    }
+
+    @Test void shouldLogFullProblemOnlyOnce() {
+        List<Exception> exceptions = sameExceptions(3);
+        String fingerprint = ProblemFingerprint.of(exceptions.get(0));
+
+        log(exceptions.get(0), "urn:1");
+        log(exceptions.get(1), "urn:2");
+        log(exceptions.get(2), "urn:3");
+
+        then(messages).containsExactly(
+            "full urn:1\nfingerprint " + fingerprint,
+            "ProblemDetail: instance urn:2 ≙ fingerprint " + fingerprint + " (2nd occurrence)",
+            "ProblemDetail: instance urn:3 ≙ fingerprint " + fingerprint + " (3rd occurrence)");
+    }
+
+    @Test void shouldLogDifferentProblemsFully() {
+        log(exceptionFromLineA(), "urn:1");
+        log(exceptionFromLineB(), "urn:2");
+
+        then(messages).hasSize(2).allMatch(message -> message.startsWith("full "));
+    }
+
+    @Test void shouldLogFullProblemAgainInNextWindow() {
+        List<Exception> exceptions = sameExceptions(3);
+
+        log(exceptions.get(0), "urn:1");
+        log(exceptions.get(1), "urn:2");
+        clock.advance(Duration.ofMinutes(1));
+        log(exceptions.get(2), "urn:3");
+
+        then(messages.get(1)).startsWith("ProblemDetail: instance urn:2 ");
+        then(messages.get(2)).startsWith("full urn:3\nfingerprint ");
+    }
+
+    @Test void shouldUseKnownFingerprint() {
+        sink.log(new LogEvent(logger, ERROR, exceptionFromLineA(), URI.create("urn:1"), "known", () -> "full urn:1"));
+
+        then(messages).containsExactly("full urn:1\nfingerprint known");
+    }
+
+    @Test void shouldEvictOldestFingerprintsWhenFull() {
+        logWithFingerprint("old");
+        for (int i = 0; i < 10_000; i++) {
+            clock.advance(Duration.ofMillis(1));
+            logWithFingerprint("fp-" + i);
+        }
+        messages.clear();
+
+        logWithFingerprint("fp-9999");
+        logWithFingerprint("old");
+
+        then(messages).containsExactly(
+            "ProblemDetail: instance urn:fp-9999 ≙ fingerprint fp-9999 (2nd occurrence)",
+            "full urn:old\nfingerprint old");
+    }
+
+    private void logWithFingerprint(String fingerprint) {
+        sink.log(new LogEvent(logger, ERROR, exceptionFromLineA(), URI.create("urn:" + fingerprint), fingerprint,
+            () -> "full urn:" + fingerprint));
+    }
+
+    @Test void shouldPassEventsWithoutException() {
+        sink.log(new LogEvent(logger, ERROR, null, null, () -> "no exception"));
+        sink.log(new LogEvent(logger, ERROR, null, null, () -> "no exception"));
+
+        then(messages).containsExactly("no exception", "no exception");
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(Duration duration) { instant = instant.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override public Clock withZone(ZoneId zone) { throw new UnsupportedOperationException(); }
+
+        @Override public Instant instant() { return instant; }
+    }
+}
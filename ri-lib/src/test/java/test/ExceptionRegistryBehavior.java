@@ -0,0 +1,115 @@
+package test;
+
+import com.github.t1.problemdetail.Type;
+import com.github.t1.problemdetail.ri.lib.ExceptionRegistry;
+import org.junit.jupiter.api.Test;
+import test.registry.FirstRegisteredException;
+import test.registry.nested.SecondRegisteredException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ExceptionRegistryBehavior {
+    private final ExceptionRegistry registry = new ExceptionRegistry();
+
+    public static class CustomException extends RuntimeException {}
+
+    @Test void shouldLookUpRegistered() {
+        String type = registry.register(CustomException.class);
+
+        then(type).isEqualTo("urn:problem-type:custom");
+        then(registry.lookup(type)).isEqualTo(CustomException.class);
+    }
+
+    @Test void shouldNotFindUnregistered() {
+        then(registry.lookup("urn:problem-type:custom")).isNull();
+        then(registry.lookup(null)).isNull();
+    }
+
+    @Test void shouldKnowDefaultsGlobally() {
+        then(ExceptionRegistry.global().lookup("urn:problem-type:null-pointer")).isEqualTo(NullPointerException.class);
+        then(registry.lookup("urn:problem-type:null-pointer")).isNull();
+    }
+
+    @Test void shouldFallBackToParent() {
+        ExceptionRegistry child = new ExceptionRegistry(registry);
+        String type = registry.register(CustomException.class);
+
+        then(child.lookup(type)).isEqualTo(CustomException.class);
+    }
+
+    @Test void shouldNotLeakToParent() {
+        ExceptionRegistry child = new ExceptionRegistry(registry);
+        String type = child.register(CustomException.class);
+
+        then(registry.lookup(type)).isNull();
+    }
+
+    @Type("urn:problem-type:shared")
+    public static class SharedTypeException extends RuntimeException {}
+
+    public static class FirstSharedTypeException extends SharedTypeException {}
+
+    public static class SecondSharedTypeException extends SharedTypeException {}
+
+    @Test void shouldPreferFirstClassNameOfSubclassesWithInheritedType() {
+        ExceptionRegistry reverse = new ExceptionRegistry();
+
+        registry.register(FirstSharedTypeException.class);
+        String type = registry.register(SecondSharedTypeException.class);
+        reverse.register(SecondSharedTypeException.class);
+        reverse.register(FirstSharedTypeException.class);
+
+        then(type).isEqualTo("urn:problem-type:shared");
+        then(registry.lookup(type)).isEqualTo(FirstSharedTypeException.class);
+        then(reverse.lookup(type)).isEqualTo(FirstSharedTypeException.class);
+    }
+
+    @Test void shouldPreferClassDeclaringType() {
+        ExceptionRegistry reverse = new ExceptionRegistry();
+
+        registry.register(SharedTypeException.class);
+        registry.register(FirstSharedTypeException.class);
+        reverse.register(SecondSharedTypeException.class);
+        reverse.register(SharedTypeException.class);
+
+        then(registry.lookup("urn:problem-type:shared")).isEqualTo(SharedTypeException.class);
+        then(reverse.lookup("urn:problem-type:shared")).isEqualTo(SharedTypeException.class);
+    }
+
+    @Test void shouldRegisterAllInPackage() {
+        int count = registry.registerAll("test.registry", getClass().getClassLoader());
+
+        then(count).isEqualTo(2);
+        then(registry.lookup("urn:problem-type:first")).isEqualTo(FirstRegisteredException.class);
+        then(registry.lookup("urn:problem-type:second-registered")).isEqualTo(SecondRegisteredException.class);
+        then(registry.lookup("urn:problem-type:abstract-registered")).isNull();
+        then(registry.lookup("urn:problem-type:checked")).isNull();
+    }
+
+    @Test void shouldRegisterAllInUnknownPackage() {
+        then(registry.registerAll("test.unknown", getClass().getClassLoader())).isZero();
+    }
+
+    @Test void shouldRegisterWhileLookingUp() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> registry.register(CustomException.class)));
+                futures.add(executor.submit(() -> registry.lookup("urn:problem-type:custom")));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        then(registry.lookup("urn:problem-type:custom")).isEqualTo(CustomException.class);
+    }
+}
@@ -0,0 +1,114 @@
+package test;
+
+import com.github.t1.problemdetail.ri.lib.InstanceFactories;
+import com.github.t1.problemdetail.ri.lib.InstanceFactory;
+import com.github.t1.problemdetail.ri.lib.ProblemFingerprint;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.data.Offset.offset;
+
+class InstanceFactoryBehavior {
+    private static final Exception EXCEPTION = new RuntimeException();
+
+    @Test void shouldCreateRandomUuid() {
+        URI instance = InstanceFactories.randomUuid().create(EXCEPTION);
+
+        then(instance.toString()).startsWith("urn:uuid:");
+        UUID uuid = UUID.fromString(instance.getSchemeSpecificPart().substring("uuid:".length()));
+        then(uuid.version()).isEqualTo(4);
+        then(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test void shouldCreateUniqueRandomUuids() {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++)
+            uuids.add(InstanceFactories.randomUuidId());
+
+        then(uuids).hasSize(10_000);
+    }
+
+    @Test void shouldCreateUuidV7() {
+        URI instance = InstanceFactories.uuidV7().create(EXCEPTION);
+
+        then(instance.toString()).startsWith("urn:uuid:");
+        UUID uuid = UUID.fromString(instance.getSchemeSpecificPart().substring("uuid:".length()));
+        then(uuid.version()).isEqualTo(7);
+        then(uuid.variant()).isEqualTo(2);
+        then(uuid.getMostSignificantBits() >>> 16).isCloseTo(System.currentTimeMillis(), offset(10_000L));
+    }
+
+    @Test void shouldCreateUniqueUuidV7s() {
+        Set<UUID> uuids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++)
+            uuids.add(InstanceFactories.uuidV7Id());
+
+        then(uuids).hasSize(10_000);
+    }
+
+    @Test void shouldCreateCounterWithNode() {
+        InstanceFactory factory = InstanceFactories.counter("node-1");
+
+        then(factory.create(EXCEPTION)).isEqualTo(URI.create("urn:problem-instance:node-1:1"));
+        then(factory.create(EXCEPTION)).isEqualTo(URI.create("urn:problem-instance:node-1:2"));
+    }
+
+    @Test void shouldCreateUlid() {
+        String ulid = InstanceFactories.ulidId();
+
+        then(ulid).hasSize(26).matches("[0-7][0-9A-HJKMNP-TV-Z]{25}");
+        then(InstanceFactories.ulid().create(EXCEPTION).toString()).matches("urn:ulid:[0-9A-Z]{26}");
+    }
+
+    @Test void shouldCreateTimeOrderedUlids() throws InterruptedException {
+        String first = InstanceFactories.ulidId();
+        Thread.sleep(2);
+        String second = InstanceFactories.ulidId();
+
+        then(first.substring(0, 10)).isLessThan(second.substring(0, 10));
+    }
+
+    @Test void shouldFillTemplate() {
+        AtomicInteger ids = new AtomicInteger();
+        InstanceFactory factory = InstanceFactories.template("https://logs.example.com/search?q={id}&fp={fingerprint}",
+            () -> "id-" + ids.incrementAndGet());
+
+        URI instance = factory.create(EXCEPTION);
+
+        then(instance).isEqualTo(URI.create("https://logs.example.com/search?q=id-1&fp=" + ProblemFingerprint.of(EXCEPTION)));
+        then(factory.create(EXCEPTION).toString()).contains("q=id-2&");
+    }
+
+    @Test void shouldFillTemplateWithOnlyPlaceholder() {
+        InstanceFactory factory = InstanceFactories.template("{id}", () -> "urn:x");
+
+        then(factory.create(EXCEPTION)).isEqualTo(URI.create("urn:x"));
+    }
+
+    @Test void shouldRejectUnknownPlaceholder() {
+        Throwable throwable = catchThrowable(() -> InstanceFactories.template("https://logs/{foo}", () -> "x"));
+
+        then(throwable).isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("unknown placeholder {foo} in instance template https://logs/{foo}");
+    }
+
+    @Test void shouldRejectInvalidTemplate() {
+        Throwable throwable = catchThrowable(() -> InstanceFactories.template("https://logs/search?q={id} now", () -> "x"));
+
+        then(throwable).isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("invalid instance template https://logs/search?q={id} now: ");
+    }
+
+    @Test void shouldEncodeTemplateValues() {
+        InstanceFactory factory = InstanceFactories.template("https://logs/search?q={id}", () -> "a:b c&d/ä");
+
+        then(factory.create(EXCEPTION)).isEqualTo(URI.create("https://logs/search?q=a:b%20c%26d%2F%C3%A4"));
+    }
+}
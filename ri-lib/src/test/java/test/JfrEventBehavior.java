@@ -0,0 +1,79 @@
+package test;
+
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class JfrEventBehavior {
+    private static final String MAPPED = "com.github.t1.problemdetail.ProblemMapped";
+    private static final String SERIALIZED = "com.github.t1.problemdetail.ProblemSerialized";
+
+    @TempDir Path tempDir;
+
+    @BeforeEach void setUp() { MockLoggerFactory.reset(); }
+
+    @Status(NOT_FOUND) private static class JfrRecordedException extends RuntimeException {}
+
+    @Test void shouldNotRecordByDefault() throws IOException {
+        List<RecordedEvent> events = record(new Recording());
+
+        then(events).isEmpty();
+    }
+
+    @Test void shouldRecordMappedAndSerialized() throws IOException {
+        Recording recording = new Recording();
+        recording.enable(MAPPED);
+        recording.enable(SERIALIZED);
+
+        List<RecordedEvent> events = record(recording);
+
+        then(events).extracting(event -> event.getEventType().getName()).containsExactly(MAPPED, SERIALIZED);
+        RecordedEvent mapped = events.get(0);
+        then(mapped.getClass("exceptionClass").getName()).isEqualTo(JfrRecordedException.class.getName());
+        then(mapped.getString("type")).isEqualTo("urn:problem-type:jfr-recorded");
+        then(mapped.getInt("status")).isEqualTo(404);
+        then(mapped.getBoolean("cacheHit")).isFalse();
+        then(mapped.getDuration("bodyTime")).isPositive();
+        RecordedEvent serialized = events.get(1);
+        then(serialized.getString("mediaType")).isEqualTo("application/problem+json");
+        then(serialized.getLong("bytes")).isPositive();
+    }
+
+    private List<RecordedEvent> record(Recording recording) throws IOException {
+        recording.start();
+        ProblemDetails details = new ProblemDetails(new JfrRecordedException()) {
+            @Override protected boolean hasDefaultMessage() { return false; }
+
+            @Override protected String findMediaTypeSubtype() { return "json"; }
+
+            @Override protected URI buildInstance() { return URI.create("urn:some-instance"); }
+        };
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) details.getBody();
+        new ProblemJson(body).writeTo(new ByteArrayOutputStream());
+        recording.stop();
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        recording.close();
+        return RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().startsWith("com.github.t1.problemdetail."))
+            .collect(toList());
+    }
+}
@@ -1,15 +1,22 @@
 package test;
 
+import com.github.t1.problemdetail.Extension;
 import com.github.t1.problemdetail.Logging;
 import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.ri.lib.LogLimiter;
 import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor;
+import org.assertj.core.api.BDDAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import test.sub.SubException;
 import test.sub.SubExceptionWithCategory;
 import test.sub.SubExceptionWithLevel;
 
 import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.github.t1.problemdetail.LogLevel.DEBUG;
 import static com.github.t1.problemdetail.LogLevel.ERROR;
@@ -18,7 +25,12 @@ import static com.github.t1.problemdetail.LogLevel.OFF;
 import static com.github.t1.problemdetail.LogLevel.WARNING;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static test.MockLoggerFactory.onlyLogger;
 
 class LoggingBehavior {
@@ -72,6 +84,25 @@ class LoggingBehavior {
         then(onlyLogger(CustomException.class)).should().debug(details.getLogMessage());
     }
 
+    @Test void shouldNotFormatLogMessageForDisabledLevel() {
+        AtomicBoolean formatted = new AtomicBoolean();
+        @Status(BAD_REQUEST) class CustomException extends Exception {
+            @Extension final Object spy = new Object() {
+                @Override public String toString() {
+                    formatted.set(true);
+                    return "spy";
+                }
+            };
+        }
+        Logger logger = LoggerFactory.getLogger(CustomException.class);
+        given(logger.isDebugEnabled()).willReturn(false);
+
+        new MockProblemDetails(new CustomException());
+
+        then(logger).should(never()).debug(anyString());
+        BDDAssertions.then(formatted).isFalse();
+    }
+
     @Test void shouldLogExplicitlyAtOff() {
         @Logging(at = OFF) class CustomException extends Exception {}
 
@@ -81,6 +112,68 @@ class LoggingBehavior {
     }
 
 
+    @Test void shouldNotLogWithZeroSample() {
+        @Logging(sample = 0.0) class CustomException extends Exception {}
+
+        new MockProblemDetails(new CustomException());
+        new MockProblemDetails(new CustomException());
+
+        then(onlyLogger(CustomException.class)).should(never()).error(anyString());
+    }
+
+    @Test void shouldLogOnlySomeSamples() {
+        @Logging(sample = 0.5) class CustomException extends Exception {}
+
+        for (int i = 0; i < 1000; i++)
+            new MockProblemDetails(new CustomException());
+
+        then(onlyLogger(CustomException.class)).should(atLeast(300)).error(anyString());
+        BDDAssertions.then(ProblemTypeDescriptor.of(CustomException.class).getLogLimiter().getSuppressed()).isBetween(300L, 700L);
+    }
+
+    @Test void shouldClampInvalidSampleWithWarning() {
+        // the annotation processor would reject it as annotation
+        LogLimiter limiter = LogLimiter.of(1.5, 0);
+
+        BDDAssertions.then(limiter).isSameAs(LogLimiter.UNLIMITED);
+        then(onlyLogger(LogLimiter.class)).should().warn("log sample must be between 0.0 and 1.0 but is {}; use {}", 1.5, 1.0);
+    }
+
+    @Test void shouldClampNegativeSampleToZero() {
+        LogLimiter limiter = LogLimiter.of(-0.5, 0);
+
+        BDDAssertions.then(limiter.tryAcquire()).isFalse();
+        then(onlyLogger(LogLimiter.class)).should().warn("log sample must be between 0.0 and 1.0 but is {}; use {}", -0.5, 0.0);
+    }
+
+    @Test void shouldTreatNegativeMaxPerSecondAsUnlimitedWithWarning() {
+        LogLimiter limiter = LogLimiter.of(1.0, -1);
+
+        BDDAssertions.then(limiter).isSameAs(LogLimiter.UNLIMITED);
+        then(onlyLogger(LogLimiter.class)).should().warn("log maxPerSecond must not be negative but is {}; use unlimited", -1);
+    }
+
+    @Test void shouldLimitLogRate() {
+        @Logging(maxPerSecond = 2) class CustomException extends Exception {}
+
+        for (int i = 0; i < 5; i++)
+            new MockProblemDetails(new CustomException());
+
+        then(onlyLogger(CustomException.class)).should(times(2)).error(anyString());
+        BDDAssertions.then(ProblemTypeDescriptor.of(CustomException.class).getLogLimiter().getSuppressed()).isEqualTo(3);
+    }
+
+    @Test void shouldLimitLogRatePerClass() {
+        @Logging(maxPerSecond = 1, to = "limited") class FrequentException extends Exception {}
+        @Logging(maxPerSecond = 1, to = "limited") class RareException extends Exception {}
+
+        for (int i = 0; i < 5; i++)
+            new MockProblemDetails(new FrequentException());
+        new MockProblemDetails(new RareException());
+
+        then(onlyLogger("limited")).should(times(2)).error(anyString());
+    }
+
     @Test void shouldLogToExplicitCategory() {
         @Logging(to = "my-errors") class CustomException extends Exception {}
 
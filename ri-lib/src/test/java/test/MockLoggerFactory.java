@@ -7,6 +7,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
 public class MockLoggerFactory implements ILoggerFactory {
@@ -19,7 +20,12 @@ public class MockLoggerFactory implements ILoggerFactory {
     }
 
     private Logger createLogger(String name) {
-        return mock(Logger.class, "logger:" + name);
+        Logger logger = mock(Logger.class, "logger:" + name);
+        given(logger.isErrorEnabled()).willReturn(true);
+        given(logger.isWarnEnabled()).willReturn(true);
+        given(logger.isInfoEnabled()).willReturn(true);
+        given(logger.isDebugEnabled()).willReturn(true);
+        return logger;
     }
 
     public static Logger onlyLogger(Class<?> type) {
@@ -2,14 +2,18 @@ package test;
 
 import com.github.t1.problemdetail.Extension;
 import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.ri.lib.ExceptionRegistry;
 import com.github.t1.problemdetail.ri.lib.ProblemDetailJsonToExceptionBuilder;
 import jakarta.json.Json;
 import jakarta.json.JsonObjectBuilder;
+import jakarta.json.bind.annotation.JsonbCreator;
+import jakarta.json.bind.annotation.JsonbProperty;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.*;
@@ -26,6 +30,22 @@ class ProblemDetailJsonToExceptionBuilderBehavior {
         then(thrown).hasMessage("no registered exception found for `type` field in {}");
     }
 
+    @Test void shouldReportBodyWithoutType() {
+        entity.add("title", "Foo").add("status", 400);
+
+        IllegalArgumentException thrown = catchThrowableOfType(this::trigger, IllegalArgumentException.class);
+
+        then(thrown).hasMessage("no registered exception found for `type` field in {\"title\":\"Foo\",\"status\":400}");
+    }
+
+    @Test void shouldReportNonStringType() {
+        entity.add("type", 42);
+
+        IllegalArgumentException thrown = catchThrowableOfType(this::trigger, IllegalArgumentException.class);
+
+        then(thrown).hasMessage("no registered exception found for `type` field in {\"type\":42}");
+    }
+
     @Test void shouldNotFilterUnknownType() {
         entity.add("type", "unknown");
 
@@ -292,12 +312,149 @@ class ProblemDetailJsonToExceptionBuilderBehavior {
     }
 
 
+    public static class CustomWithSetterException extends RuntimeException {
+        @Extension String value;
+        boolean setterCalled;
+
+        public void setValue(String value) {
+            this.value = value;
+            this.setterCalled = true;
+        }
+    }
+
+    @Test void shouldPreferSetter() {
+        givenRegisteredType(CustomWithSetterException.class);
+        entity.add("value", "dummy");
+
+        CustomWithSetterException thrown = catchThrowableOfType(this::trigger, CustomWithSetterException.class);
+
+        assertThat(thrown.value).isEqualTo("dummy");
+        assertThat(thrown.setterCalled).isTrue();
+    }
+
+    public static class CustomWithListExtensionException extends RuntimeException {
+        @Extension List<String> list;
+    }
+
+    @Test void shouldConvertUnknownTypeWithJsonb() {
+        givenRegisteredType(CustomWithListExtensionException.class);
+        entity.add("list", Json.createArrayBuilder().add("a").add("b"));
+
+        CustomWithListExtensionException thrown = catchThrowableOfType(this::trigger, CustomWithListExtensionException.class);
+
+        assertThat(thrown.list).containsExactly("a", "b");
+    }
+
+    public static class CustomWithInconvertibleExtensionException extends RuntimeException {
+        @Extension int number;
+        @Extension String other;
+    }
+
+    @Test void shouldSkipInconvertibleExtension() {
+        givenRegisteredType(CustomWithInconvertibleExtensionException.class);
+        entity.add("number", "not-a-number");
+        entity.add("other", "dummy");
+
+        CustomWithInconvertibleExtensionException thrown = catchThrowableOfType(this::trigger, CustomWithInconvertibleExtensionException.class);
+
+        assertThat(thrown.number).isZero();
+        assertThat(thrown.other).isEqualTo("dummy");
+    }
+
+    public static class CustomWithCreatorException extends RuntimeException {
+        @Instance final URI instance;
+        @Extension("the-code") final String code;
+
+        @JsonbCreator
+        public CustomWithCreatorException(@JsonbProperty("instance") URI instance, @JsonbProperty("code") String code) {
+            this.instance = instance;
+            this.code = code;
+        }
+    }
+
+    @Test void shouldBuildWithJsonbCreator() {
+        givenRegisteredType(CustomWithCreatorException.class);
+        entity.add("instance", "urn:some:instance");
+        entity.add("the-code", "dummy");
+
+        CustomWithCreatorException thrown = catchThrowableOfType(this::trigger, CustomWithCreatorException.class);
+
+        assertThat(thrown.instance).isEqualTo(URI.create("urn:some:instance"));
+        assertThat(thrown.code).isEqualTo("dummy");
+    }
+
+    public static class ScopedException extends RuntimeException {}
+
+    @Test void shouldBuildTypeFromScopedRegistry() {
+        ExceptionRegistry registry = new ExceptionRegistry(ExceptionRegistry.global());
+        entity.add("type", registry.register(ScopedException.class));
+        String json = entity.build().toString();
+
+        Exception thrown = catchException(() -> new ProblemDetailJsonToExceptionBuilder(
+            new ByteArrayInputStream(json.getBytes(UTF_8)), registry).trigger());
+
+        assertThat(thrown).isInstanceOf(ScopedException.class);
+    }
+
+    @Test void shouldStopReadingAtUnknownType() {
+        IllegalArgumentException thrown = catchThrowableOfType(() -> trigger("{\"title\":\"Foo\",\"type\":\"unknown\",\"broken\":"),
+            IllegalArgumentException.class);
+
+        then(thrown).hasMessage("no registered exception found for `type` field in {\"title\":\"Foo\",\"type\":\"unknown\"}");
+    }
+
+    @Test void shouldSkipUnboundFields() {
+        String type = ProblemDetailJsonToExceptionBuilder.register(CustomWithNamedExtensionsException.class);
+
+        CustomWithNamedExtensionsException thrown = catchThrowableOfType(() -> trigger("{" +
+                "\"type\":\"" + type + "\"," +
+                "\"unbound-object\":{\"nested\":[1,{\"deeper\":true}]}," +
+                "\"unbound-array\":[{},[]]," +
+                "\"str\":\"some text\"" +
+                "}"),
+            CustomWithNamedExtensionsException.class);
+
+        then(thrown.strX).isEqualTo("some text");
+    }
+
+    @Test void shouldBuildWithTypeAfterExtensions() {
+        String type = ProblemDetailJsonToExceptionBuilder.register(CustomWithNamedExtensionsException.class);
+
+        CustomWithNamedExtensionsException thrown = catchThrowableOfType(() -> trigger("{" +
+                "\"unbound\":{\"nested\":1}," +
+                "\"str\":\"some text\"," +
+                "\"type\":\"" + type + "\"" +
+                "}"),
+            CustomWithNamedExtensionsException.class);
+
+        then(thrown.strX).isEqualTo("some text");
+    }
+
+    @Test void shouldRejectTooBigBody() {
+        givenRegisteredType(CustomWithNamedExtensionsException.class);
+        entity.add("str", "x".repeat(64 * 1024));
+
+        IllegalArgumentException thrown = catchThrowableOfType(this::trigger, IllegalArgumentException.class);
+
+        then(thrown).hasMessage("problem detail body exceeds the maximum of 65536 bytes");
+    }
+
+    @Test void shouldRejectMalformedJson() {
+        IllegalArgumentException thrown = catchThrowableOfType(() -> trigger("{\"type\":"), IllegalArgumentException.class);
+
+        then(thrown).hasMessageStartingWith("can't parse problem detail json: ");
+    }
+
     private void trigger() {
         String json = entity.build().toString();
         InputStream inputStream = new ByteArrayInputStream(json.getBytes(UTF_8));
         new ProblemDetailJsonToExceptionBuilder(inputStream).trigger();
     }
 
+    private static void trigger(String json) {
+        new ProblemDetailJsonToExceptionBuilder(new ByteArrayInputStream(json.getBytes(UTF_8))).trigger();
+    }
+
     private void givenRegisteredType(Class<? extends RuntimeException> type) {
         String typeUri = ProblemDetailJsonToExceptionBuilder.register(type);
         entity.add("type", typeUri);
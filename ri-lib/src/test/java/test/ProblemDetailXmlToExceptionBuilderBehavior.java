@@ -0,0 +1,102 @@
+package test;
+
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.ri.lib.ExceptionRegistry;
+import com.github.t1.problemdetail.ri.lib.ProblemDetailXmlToExceptionBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ProblemDetailXmlToExceptionBuilderBehavior {
+    private final ExceptionRegistry registry = new ExceptionRegistry();
+
+    public static class OutOfCreditException extends RuntimeException {
+        @Instance URI instance;
+        @Extension int balance;
+        @Extension("account-ids") List<String> accounts;
+        @Extension String note;
+    }
+
+    private void trigger(String xml) {
+        new ProblemDetailXmlToExceptionBuilder(new ByteArrayInputStream(xml.getBytes(UTF_8)), registry).trigger();
+    }
+
+    @Test void shouldFailForUnknownType() {
+        IllegalArgumentException thrown = catchThrowableOfType(() -> trigger("" +
+            "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+            "    <type>urn:problem-type:unknown</type>\n" +
+            "    <balance>30</balance>\n" +
+            "</problem>\n"), IllegalArgumentException.class);
+
+        then(thrown).hasMessage("no registered exception found for `type` element urn:problem-type:unknown");
+    }
+
+    @Test void shouldFailForMissingType() {
+        IllegalArgumentException thrown = catchThrowableOfType(() -> trigger("<problem/>"), IllegalArgumentException.class);
+
+        then(thrown).hasMessage("no registered exception found for `type` element null");
+    }
+
+    @Test void shouldBuildRegisteredException() {
+        String type = registry.register(OutOfCreditException.class);
+
+        OutOfCreditException thrown = catchThrowableOfType(() -> trigger("" +
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+            "    <type>" + type + "</type>\n" +
+            "    <title>Out Of Credit</title>\n" +
+            "    <status>400</status>\n" +
+            "    <detail>Your current balance is 30, but that costs 50.</detail>\n" +
+            "    <instance>urn:some-instance</instance>\n" +
+            "    <balance>30</balance>\n" +
+            "    <account-ids>\n" +
+            "        <i>/account/12345</i>\n" +
+            "        <i>/account/67890</i>\n" +
+            "    </account-ids>\n" +
+            "    <unknown>\n" +
+            "        <nested>x</nested>\n" +
+            "    </unknown>\n" +
+            "    <note/>\n" +
+            "</problem>\n"), OutOfCreditException.class);
+
+        then(thrown.instance).isEqualTo(URI.create("urn:some-instance"));
+        then(thrown.balance).isEqualTo(30);
+        then(thrown.accounts).containsExactly("/account/12345", "/account/67890");
+        then(thrown.note).isNull();
+    }
+
+    @Test void shouldBuildWithTypeAfterExtensions() {
+        String type = registry.register(OutOfCreditException.class);
+
+        OutOfCreditException thrown = catchThrowableOfType(() -> trigger("" +
+            "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+            "    <balance>30</balance>\n" +
+            "    <note>a &amp; b</note>\n" +
+            "    <type>" + type + "</type>\n" +
+            "</problem>\n"), OutOfCreditException.class);
+
+        then(thrown.balance).isEqualTo(30);
+        then(thrown.note).isEqualTo("a & b");
+    }
+
+    @Test void shouldRejectDoctype() {
+        registry.register(OutOfCreditException.class);
+
+        IllegalArgumentException thrown = catchThrowableOfType(() -> trigger("" +
+            "<?xml version=\"1.0\"?>\n" +
+            "<!DOCTYPE problem [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>\n" +
+            "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+            "    <type>urn:problem-type:out-of-credit</type>\n" +
+            "    <note>&xxe;</note>\n" +
+            "</problem>\n"), IllegalArgumentException.class);
+
+        then(thrown).hasMessageStartingWith("can't parse problem detail xml: ");
+    }
+}
@@ -0,0 +1,54 @@
+package test;
+
+import com.github.t1.problemdetail.ri.lib.ProblemMediaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ProblemMediaTypeBehavior {
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "null", value = {
+        "null                                                                   | application/problem+json",
+        "''                                                                     | application/problem+json",
+        "*/*                                                                    | application/problem+json",
+        "text/plain                                                             | application/problem+json",
+        "application/json                                                       | application/problem+json",
+        "application/xml                                                        | application/problem+xml",
+        "text/plain, application/xml                                            | application/problem+xml",
+        "application/problem+json                                               | application/problem+json",
+        "application/problem+xml                                                | application/problem+xml",
+        "application/problem+*                                                  | application/problem+json",
+        "application/*                                                          | application/problem+json",
+        "application/*, application/xml                                         | application/problem+xml",
+        "APPLICATION/XML                                                        | application/problem+xml",
+        "application/yaml                                                       | application/problem+yaml",
+        "application/json;q=0.5, application/xml                                | application/problem+xml",
+        "application/json;q=0.5, application/xml;q=0.8                          | application/problem+xml",
+        "application/json; charset=utf-8; q=0.9, application/xml;q=0.8          | application/problem+json",
+        "application/xml;q=0, application/json;q=0.1                            | application/problem+json",
+        "application/xml;q=0                                                    | application/problem+json",
+        "application/xml;q=invalid                                              | application/problem+json",
+        "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8     | text/html",
+    })
+    void shouldNegotiate(String accept, String expected) {
+        ProblemMediaType mediaType = ProblemMediaType.negotiate(accept);
+
+        then(mediaType).hasToString(expected);
+        then(mediaType.toMediaType().getType() + "/" + mediaType.toMediaType().getSubtype()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"application/xml", "application/json"})
+    void shouldCacheNegotiatedMediaType(String accept) {
+        then(ProblemMediaType.negotiate(accept)).isSameAs(ProblemMediaType.negotiate(accept));
+    }
+
+    @Test void shouldNegotiateMoreDistinctHeadersThanCached() {
+        for (int i = 0; i < 1000; i++)
+            then(ProblemMediaType.negotiate("application/x-" + i)).hasToString("application/problem+x-" + i);
+
+        then(ProblemMediaType.negotiate("application/xml")).isSameAs(ProblemMediaType.XML);
+    }
+}
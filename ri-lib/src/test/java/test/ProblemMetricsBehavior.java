@@ -0,0 +1,168 @@
+package test;
+
+import com.github.t1.problemdetail.Logging;
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.ri.lib.MicroProfileProblemMetrics;
+import com.github.t1.problemdetail.ri.lib.MicrometerProblemMetrics;
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import com.github.t1.problemdetail.ri.lib.ProblemMetrics;
+import com.github.t1.problemdetail.ri.lib.ProblemStatistics;
+import com.github.t1.problemdetail.ri.lib.ProblemStatistics.Histogram;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.t1.problemdetail.LogLevel.ERROR;
+import static com.github.t1.problemdetail.LogLevel.WARNING;
+import static com.github.t1.problemdetail.ri.lib.ProblemMetrics.LogSkip.DROPPED;
+import static com.github.t1.problemdetail.ri.lib.ProblemMetrics.LogSkip.SUPPRESSED;
+import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
+import static jakarta.ws.rs.core.Response.Status.Family.CLIENT_ERROR;
+import static jakarta.ws.rs.core.Response.Status.Family.SERVER_ERROR;
+import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
+import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ProblemMetricsBehavior {
+    private static final URI TYPE = URI.create("urn:problem-type:some");
+
+    private final ProblemStatistics statistics = new ProblemStatistics();
+
+    @BeforeEach void setUp() { MockLoggerFactory.reset(); }
+
+    @AfterEach void tearDown() { ProblemMetrics.install(ProblemMetrics.NONE); }
+
+    @Status(BAD_REQUEST) private static class BadRequestException extends RuntimeException {}
+
+    @Logging(sample = 0.0) private static class SuppressedException extends RuntimeException {}
+
+    @Test void shouldCountMapped() {
+        ProblemMetrics.install(statistics);
+
+        new MockProblemDetails(new BadRequestException());
+        new MockProblemDetails(new BadRequestException());
+        new MockProblemDetails(new IllegalStateException());
+
+        then(statistics.getMapped(URI.create("urn:problem-type:bad-request"), 400)).isEqualTo(2);
+        then(statistics.getMapped(URI.create("urn:problem-type:bad-request"), 500)).isZero();
+        then(statistics.getMapped(URI.create("urn:problem-type:illegal-state"), 500)).isEqualTo(1);
+        then(statistics.getMapped(CLIENT_ERROR)).isEqualTo(2);
+        then(statistics.getMapped(SERVER_ERROR)).isEqualTo(1);
+    }
+
+    @Test void shouldRecordWrittenBody() throws IOException {
+        ProblemMetrics.install(statistics);
+        ProblemDetails details = new MockProblemDetails(new BadRequestException());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ProblemJson(body(details)).writeTo(out);
+
+        then(statistics.getBodySize().getCount()).isEqualTo(1);
+        then(statistics.getBodySize().getSum()).isEqualTo(out.size());
+        then(statistics.getLatency().getCount()).isEqualTo(1);
+        then(statistics.getLatency().getMax()).isPositive();
+    }
+
+    @Test void shouldNotRecordPlainMap() throws IOException {
+        ProblemMetrics.install(statistics);
+
+        new ProblemJson(Map.of("type", TYPE)).writeTo(new ByteArrayOutputStream());
+
+        then(statistics.getBodySize().getCount()).isZero();
+    }
+
+    @Test void shouldCountSuppressedLogEvent() {
+        ProblemMetrics.install(statistics);
+
+        new MockProblemDetails(new SuppressedException());
+
+        then(statistics.getLogSkipped(ERROR, SUPPRESSED)).isEqualTo(1);
+        then(statistics.getLogSkipped(ERROR, DROPPED)).isZero();
+    }
+
+    @Test void shouldComputePercentiles() {
+        for (int i = 1; i <= 100; i++)
+            statistics.written(i, 1000);
+        Histogram latency = statistics.getLatency();
+
+        then(latency.getCount()).isEqualTo(100);
+        then(latency.getSum()).isEqualTo(5050);
+        then(latency.getMax()).isEqualTo(100);
+        then(latency.getPercentile(0.5)).isEqualTo(63);
+        then(latency.getPercentile(0.99)).isEqualTo(100);
+        then(statistics.getBodySize().getPercentile(0.5)).isEqualTo(1000);
+    }
+
+    @Test void shouldPublishToMicrometer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerProblemMetrics metrics = new MicrometerProblemMetrics(registry);
+
+        metrics.mapped(TYPE, NOT_FOUND);
+        metrics.mapped(TYPE, NOT_FOUND);
+        metrics.mapped(TYPE, INTERNAL_SERVER_ERROR);
+        metrics.written(2_000_000, 300);
+        metrics.logSkipped(WARNING, DROPPED);
+
+        then(registry.get("problem.details.mapped").tags("type", TYPE.toString(), "status", "404", "family", "client_error")
+            .counter().count()).isEqualTo(2.0);
+        then(registry.get("problem.details.mapped").tags("status", "500", "family", "server_error")
+            .counter().count()).isEqualTo(1.0);
+        then(registry.get("problem.details.latency").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(2.0);
+        then(registry.get("problem.details.body.size").summary().totalAmount()).isEqualTo(300.0);
+        then(registry.get("problem.details.log.skipped").tags("level", "warning", "reason", "dropped")
+            .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test void shouldPublishToMicroProfile() {
+        MetricRegistry registry = mock(MetricRegistry.class);
+        Counter counter = mock(Counter.class);
+        Timer timer = mock(Timer.class);
+        org.eclipse.microprofile.metrics.Histogram histogram = mock(org.eclipse.microprofile.metrics.Histogram.class);
+        given(registry.counter(anyString(), any(Tag[].class))).willReturn(counter);
+        given(registry.timer("problem.details.latency")).willReturn(timer);
+        given(registry.histogram("problem.details.body.size")).willReturn(histogram);
+        MicroProfileProblemMetrics metrics = new MicroProfileProblemMetrics(registry);
+
+        metrics.mapped(TYPE, NOT_FOUND);
+        metrics.written(2_000_000, 300);
+
+        verify(registry).counter("problem.details.mapped",
+            new Tag("type", TYPE.toString()), new Tag("status", "404"), new Tag("family", "client_error"));
+        verify(counter).inc();
+        verify(timer).update(Duration.ofMillis(2));
+        verify(histogram).update(300L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(ProblemDetails details) {
+        return (Map<String, Object>) details.getBody();
+    }
+
+    private static class MockProblemDetails extends ProblemDetails {
+        MockProblemDetails(Exception exception) { super(exception); }
+
+        @Override protected boolean hasDefaultMessage() { return false; }
+
+        @Override protected String findMediaTypeSubtype() { return "json"; }
+
+        @Override protected URI buildInstance() { return URI.create("urn:some-instance"); }
+    }
+}
@@ -0,0 +1,193 @@
+package test;
+
+import com.github.t1.problemdetail.Detail;
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Instance;
+import com.github.t1.problemdetail.Logging;
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.Title;
+import com.github.t1.problemdetail.Type;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor.Accessor;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import test.sub.SubException;
+
+import java.net.URI;
+
+import static com.github.t1.problemdetail.LogLevel.AUTO;
+import static com.github.t1.problemdetail.LogLevel.WARNING;
+import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ProblemTypeDescriptorBehavior {
+    @Test void shouldDeriveDefaultsFromClassName() {
+        class SomeThingException extends RuntimeException {}
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeThingException.class);
+
+        then(descriptor.getStatus()).isNull();
+        then(descriptor.getType()).isEqualTo(URI.create("urn:problem-type:some-thing"));
+        then(descriptor.getTitle()).isEqualTo("Some Thing");
+        then(descriptor.getLogLevel()).isEqualTo(AUTO);
+        then(descriptor.getDetails()).isEmpty();
+        then(descriptor.getInstance()).isNull();
+        then(descriptor.getExtensions()).isEmpty();
+    }
+
+    @Test void shouldComputeOnlyOncePerClass() {
+        class SomeException extends RuntimeException {}
+
+        then(ProblemTypeDescriptor.of(SomeException.class)).isSameAs(ProblemTypeDescriptor.of(SomeException.class));
+    }
+
+    @Test void shouldResolveAnnotations() {
+        @Type("some-type")
+        @Title("some-title")
+        @Status(FORBIDDEN)
+        class SomeException extends RuntimeException {
+            @Detail String detail = "some-detail";
+            @Instance String instance = "urn:some-instance";
+            @Extension("bar") String foo = "foo-value";
+
+            @Extension private int f1() { return 123; }
+        }
+        SomeException exception = new SomeException();
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeException.class);
+
+        then(descriptor.getStatus()).isEqualTo(FORBIDDEN);
+        then(descriptor.getType()).isEqualTo(URI.create("some-type"));
+        then(descriptor.getTitle()).isEqualTo("some-title");
+        then(descriptor.getDetails()).extracting(accessor -> accessor.get(exception)).containsExactly("some-detail");
+        then(descriptor.getInstance().get(exception)).isEqualTo("urn:some-instance");
+        then(descriptor.getExtensions()).extracting(Accessor::getName).containsExactly("bar", "f1");
+        then(descriptor.getExtensions()).extracting(accessor -> accessor.get(exception)).containsExactly("foo-value", 123);
+    }
+
+    static class SomeAccessorException extends RuntimeException {
+        @Extension String checked() throws Exception { throw new Exception("some-checked"); }
+
+        @Extension String withArg(String arg) { return arg; }
+
+        @Extension static long stat() { return 42L; }
+    }
+
+    @Test void shouldReadSpecialAccessors() {
+        SomeAccessorException exception = new SomeAccessorException();
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeAccessorException.class);
+
+        then(descriptor.getExtensions()).extracting(accessor -> accessor.get(exception)).containsOnly(
+            "could not invoke SomeAccessorException.checked: java.lang.Exception: some-checked",
+            "could not invoke SomeAccessorException.withArg: expected no args but got 1",
+            42L);
+    }
+
+    @Type("generated-type")
+    @Status(FORBIDDEN)
+    static class SomeGeneratedException extends RuntimeException {
+        @Detail String detail = "some-detail";
+        @Instance String instance = "urn:some-instance";
+        @Extension("bar") String foo = "foo-value";
+
+        @Extension int f1() { return 123; }
+
+        @Extension String failing() { throw new IllegalStateException("some-failure"); }
+    }
+
+    @Test void shouldUseGeneratedWriter() {
+        SomeGeneratedException exception = new SomeGeneratedException();
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeGeneratedException.class);
+
+        then(descriptor.isGenerated()).isTrue();
+        then(descriptor.getStatus()).isEqualTo(FORBIDDEN);
+        then(descriptor.getType()).isEqualTo(URI.create("generated-type"));
+        then(descriptor.getTitle()).isEqualTo("Some Generated");
+        then(descriptor.getDetails()).extracting(accessor -> accessor.get(exception)).containsExactly("some-detail");
+        then(descriptor.getInstance().get(exception)).isEqualTo("urn:some-instance");
+        then(descriptor.getExtensions()).extracting(Accessor::getName).containsExactly("bar", "f1", "failing");
+        then(descriptor.getExtensions()).extracting(accessor -> accessor.get(exception)).containsExactly("foo-value", 123,
+            "could not invoke SomeGeneratedException.failing: java.lang.IllegalStateException: some-failure");
+    }
+
+    @Title("interface-title")
+    interface SomeProblem {
+        @Extension default String code() { return "some-code"; }
+    }
+
+    @Type("base-type")
+    @Status(FORBIDDEN)
+    @Logging(at = WARNING)
+    static class SomeBaseException extends RuntimeException implements SomeProblem {
+        @Detail String detail() { return "base-detail"; }
+
+        @Instance String instance = "urn:base-instance";
+    }
+
+    @Test void shouldInheritAnnotations() {
+        class SomeSubException extends SomeBaseException {
+            @Instance String subInstance = "urn:sub-instance";
+
+            @Override String detail() { return "overridden-detail"; }
+        }
+        SomeSubException exception = new SomeSubException();
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeSubException.class);
+
+        then(descriptor.isGenerated()).isFalse();
+        then(descriptor.getStatus()).isEqualTo(FORBIDDEN);
+        then(descriptor.getType()).isEqualTo(URI.create("base-type"));
+        then(descriptor.getTitle()).isEqualTo("interface-title");
+        then(descriptor.getLogLevel()).isEqualTo(WARNING);
+        then(descriptor.getDetails()).extracting(accessor -> accessor.get(exception)).containsExactly("overridden-detail");
+        then(descriptor.getInstance().get(exception)).isEqualTo("urn:sub-instance");
+        then(descriptor.getExtensions()).extracting(accessor -> accessor.get(exception)).containsExactly("some-code");
+    }
+
+    @Test void shouldPreferNearestAnnotations() {
+        @Type("sub-type")
+        @Logging(maxPerSecond = 3)
+        class SomeSubException extends SomeBaseException {}
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeSubException.class);
+
+        then(descriptor.getType()).isEqualTo(URI.create("sub-type"));
+        then(descriptor.getTitle()).isEqualTo("interface-title");
+        then(descriptor.getLogLevel()).isEqualTo(WARNING);
+    }
+
+    @Test void shouldInheritPackageAnnotationOfSuperclass() {
+        class SomeSubException extends SubException {}
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeSubException.class);
+
+        then(descriptor.getLogLevel()).isEqualTo(WARNING);
+        then(descriptor.getLogger()).isSameAs(LoggerFactory.getLogger("warnings"));
+    }
+
+    @Title("generated-sub-title")
+    static class SomeGeneratedSubException extends SomeBaseException {
+        @Extension("sub") String sub = "sub-value";
+    }
+
+    @Test void shouldInheritAnnotationsInGeneratedWriter() {
+        SomeGeneratedSubException exception = new SomeGeneratedSubException();
+
+        ProblemTypeDescriptor descriptor = ProblemTypeDescriptor.of(SomeGeneratedSubException.class);
+
+        then(descriptor.isGenerated()).isTrue();
+        then(descriptor.getStatus()).isEqualTo(FORBIDDEN);
+        then(descriptor.getType()).isEqualTo(URI.create("base-type"));
+        then(descriptor.getTitle()).isEqualTo("generated-sub-title");
+        then(descriptor.getLogLevel()).isEqualTo(WARNING);
+        then(descriptor.getDetails()).extracting(accessor -> accessor.get(exception)).containsExactly("base-detail");
+        then(descriptor.getInstance().get(exception)).isEqualTo("urn:base-instance");
+        then(descriptor.getExtensions()).extracting(Accessor::getName).containsExactly("code", "sub");
+    }
+
+    @Test void shouldFallBackToReflectionForUnsupportedMembers() {
+        then(ProblemTypeDescriptor.of(SomeAccessorException.class).isGenerated()).isFalse();
+    }
+}
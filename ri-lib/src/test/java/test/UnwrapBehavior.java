@@ -0,0 +1,133 @@
+package test;
+
+import com.github.t1.problemdetail.Unwrap;
+import com.github.t1.problemdetail.ri.lib.UnwrapPolicy;
+import com.github.t1.problemdetail.ri.lib.Unwrapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class UnwrapBehavior {
+    @Unwrap static class AnnotatedWrapper extends RuntimeException {
+        AnnotatedWrapper(Throwable cause) { super(cause); }
+    }
+
+    static class SubCompletionException extends CompletionException {
+        SubCompletionException(Throwable cause) { super(cause); }
+    }
+
+    @Unwrap static class AnnotatedCompletionException extends CompletionException {
+        AnnotatedCompletionException(Throwable cause) { super(cause); }
+    }
+
+    @Unwrap(false) static class KeptWrapper extends AnnotatedWrapper {
+        KeptWrapper(Throwable cause) { super(cause); }
+    }
+
+    static class CustomWrapper extends RuntimeException {
+        CustomWrapper(Throwable cause) { super(cause); }
+    }
+
+    /** Registered for all tests of this module, so it abstains for all other exceptions */
+    public static class CustomWrapperPolicy implements UnwrapPolicy {
+        @Override public Decision decide(Class<? extends Exception> type) {
+            return (type == CustomWrapper.class) ? Decision.UNWRAP : Decision.ABSTAIN;
+        }
+    }
+
+    @Unwrap static class CyclicWrapper extends AnnotatedWrapper {
+        private Throwable cause;
+
+        CyclicWrapper() { super(null); }
+
+        @Override public synchronized Throwable getCause() { return cause; }
+    }
+
+    private final IllegalArgumentException cause = new IllegalArgumentException("cause");
+
+    @Test void shouldKeepPlainException() {
+        then(Unwrapping.unwrap(cause)).isSameAs(cause);
+    }
+
+    @Test void shouldUnwrapBuiltInWrapper() {
+        then(Unwrapping.unwrap(new CompletionException(cause))).isSameAs(cause);
+    }
+
+    @Test void shouldUnwrapNestedWrappers() {
+        then(Unwrapping.unwrap(new CompletionException(new IllegalStateException(cause)))).isSameAs(cause);
+    }
+
+    @Test void shouldKeepWrapperWithoutCause() {
+        IllegalStateException wrapper = new IllegalStateException("no cause");
+
+        then(Unwrapping.unwrap(wrapper)).isSameAs(wrapper);
+    }
+
+    @Test void shouldKeepWrapperWithErrorCause() {
+        CompletionException wrapper = new CompletionException(new OutOfMemoryError());
+
+        then(Unwrapping.unwrap(wrapper)).isSameAs(wrapper);
+    }
+
+    @Test void shouldUnwrapAnnotatedWrapper() {
+        then(Unwrapping.unwrap(new AnnotatedWrapper(cause))).isSameAs(cause);
+    }
+
+    @Test void shouldKeepSubclassOfBuiltInWrapper() {
+        SubCompletionException wrapper = new SubCompletionException(cause);
+
+        then(Unwrapping.unwrap(wrapper)).isSameAs(wrapper);
+    }
+
+    @Test void shouldUnwrapAnnotatedSubclassOfBuiltInWrapper() {
+        then(Unwrapping.unwrap(new AnnotatedCompletionException(cause))).isSameAs(cause);
+    }
+
+    @Test void shouldKeepSubclassOfAnnotatedWrapperAnnotatedNotToUnwrap() {
+        KeptWrapper wrapper = new KeptWrapper(cause);
+
+        then(Unwrapping.unwrap(wrapper)).isSameAs(wrapper);
+    }
+
+    @Test void shouldUnwrapWrapperDecidedByPolicy() {
+        then(Unwrapping.unwrap(new CustomWrapper(cause))).isSameAs(cause);
+    }
+
+    @Test void shouldLetTestPolicyAbstainForOtherExceptions() {
+        CustomWrapperPolicy policy = new CustomWrapperPolicy();
+
+        then(policy.decide(RuntimeException.class)).isEqualTo(UnwrapPolicy.Decision.ABSTAIN);
+        then(policy.decide(CompletionException.class)).isEqualTo(UnwrapPolicy.Decision.ABSTAIN);
+    }
+
+    @Test void shouldStopAtCycle() {
+        CyclicWrapper first = new CyclicWrapper();
+        CyclicWrapper second = new CyclicWrapper();
+        first.cause = second;
+        second.cause = first;
+
+        then(Unwrapping.unwrap(first)).isSameAs(second);
+    }
+
+    @Test void shouldStopAtMaxDepth() {
+        Exception wrapper = cause;
+        for (int i = 0; i < 20; i++)
+            wrapper = new AnnotatedWrapper(wrapper);
+
+        Exception unwrapped = Unwrapping.unwrap(wrapper);
+
+        then(unwrapped).isInstanceOf(AnnotatedWrapper.class);
+        then(depth(unwrapped)).isEqualTo(20 - 8);
+    }
+
+    private static int depth(Throwable throwable) {
+        int depth = 0;
+        while (throwable.getCause() != null) {
+            throwable = throwable.getCause();
+            depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,3 @@
+package test.registry;
+
+public abstract class AbstractRegisteredException extends RuntimeException {}
@@ -0,0 +1,3 @@
+package test.registry;
+
+public class CheckedException extends Exception {}
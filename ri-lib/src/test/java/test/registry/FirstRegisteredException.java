@@ -0,0 +1,6 @@
+package test.registry;
+
+import com.github.t1.problemdetail.Type;
+
+@Type("urn:problem-type:first")
+public class FirstRegisteredException extends RuntimeException {}
@@ -0,0 +1,3 @@
+package test.registry.nested;
+
+public class SecondRegisteredException extends RuntimeException {}
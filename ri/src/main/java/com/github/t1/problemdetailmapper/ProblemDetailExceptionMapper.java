@@ -1,19 +1,17 @@
 package com.github.t1.problemdetailmapper;
 
 import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemMediaType;
+import com.github.t1.problemdetail.ri.lib.Unwrapping;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
-import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.StatusType;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
-import java.util.List;
-
-import static java.util.Arrays.asList;
 
 /**
  * Maps exceptions to a response with a body containing problem details
@@ -22,9 +20,6 @@ import static java.util.Arrays.asList;
 @Slf4j
 @Provider
 public class ProblemDetailExceptionMapper implements ExceptionMapper<Exception> {
-    private static final List<String> UNWRAP = asList("jakarta.ejb.EJBException", "java.lang.IllegalStateException",
-        "java.util.concurrent.CompletionException");
-
     @Context
     HttpHeaders requestHeaders;
 
@@ -35,10 +30,9 @@ public class ProblemDetailExceptionMapper implements ExceptionMapper<Exception>
             return response;
         }
 
-        while (UNWRAP.contains(exception.getClass().getName()) && exception.getCause() instanceof Exception /* implies not null */) {
-            exception = (Exception) exception.getCause();
-        }
+        exception = Unwrapping.unwrap(exception);
 
+        ProblemMediaType mediaType = ProblemMediaType.negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT));
         ProblemDetails problemDetail = new ProblemDetails(exception) {
             @Override protected StatusType fallbackStatus() {
                 return (response != null) ? response.getStatusInfo() : super.fallbackStatus();
@@ -51,19 +45,18 @@ public class ProblemDetailExceptionMapper implements ExceptionMapper<Exception>
             }
 
             @Override protected String findMediaTypeSubtype() {
-                for (MediaType accept : requestHeaders.getAcceptableMediaTypes()) {
-                    if ("application".equals(accept.getType())) {
-                        return accept.getSubtype();
-                    }
-                }
-                return "json";
+                return mediaType.getFormat();
+            }
+
+            @Override protected String buildResponseMediaType() {
+                return mediaType.toString();
             }
         };
 
         return Response
             .status(problemDetail.getStatus())
             .entity(problemDetail.getBody())
-            .header("Content-Type", problemDetail.getMediaType())
+            .type(mediaType.toMediaType())
             .build();
     }
 }
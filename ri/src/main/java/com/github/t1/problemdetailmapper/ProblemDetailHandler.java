@@ -1,6 +1,8 @@
 package com.github.t1.problemdetailmapper;
 
+import com.github.t1.problemdetail.ri.lib.ExceptionRegistry;
 import com.github.t1.problemdetail.ri.lib.ProblemDetailJsonToExceptionBuilder;
+import com.github.t1.problemdetail.ri.lib.ProblemDetailXmlToExceptionBuilder;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.ws.rs.client.ClientRequestContext;
@@ -9,14 +11,29 @@ import jakarta.ws.rs.client.ClientResponseFilter;
 import jakarta.ws.rs.ext.Provider;
 
 import static com.github.t1.problemdetail.Constants.PROBLEM_DETAIL_JSON_TYPE;
+import static com.github.t1.problemdetail.Constants.PROBLEM_DETAIL_XML_TYPE;
 
 @Slf4j
 @Provider
 public class ProblemDetailHandler implements ClientResponseFilter {
+    private final ExceptionRegistry registry;
+
+    /** Uses the {@link ExceptionRegistry#global() global} registry */
+    public ProblemDetailHandler() {
+        this(ExceptionRegistry.global());
+    }
+
+    /** Uses a registry scoped to the client, e.g. <code>new ExceptionRegistry(ExceptionRegistry.global())</code> */
+    public ProblemDetailHandler(ExceptionRegistry registry) {
+        this.registry = registry;
+    }
+
     @Override public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
-        // TODO XML
         if (PROBLEM_DETAIL_JSON_TYPE.isCompatible(responseContext.getMediaType())) {
-            new ProblemDetailJsonToExceptionBuilder(responseContext.getEntityStream())
+            new ProblemDetailJsonToExceptionBuilder(responseContext.getEntityStream(), registry)
+                .trigger();
+        } else if (PROBLEM_DETAIL_XML_TYPE.isCompatible(responseContext.getMediaType())) {
+            new ProblemDetailXmlToExceptionBuilder(responseContext.getEntityStream(), registry)
                 .trigger();
         }
     }
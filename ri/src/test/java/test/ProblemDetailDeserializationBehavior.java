@@ -6,10 +6,15 @@ import com.github.t1.problemdetailmapper.ProblemDetailXmlMessageBodyReader;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 
+import jakarta.json.bind.annotation.JsonbProperty;
+import jakarta.json.bind.annotation.JsonbTransient;
 import jakarta.ws.rs.ext.MessageBodyReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+
+import static com.github.t1.problemdetail.Constants.PROBLEM_DETAIL_JSON_TYPE;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.BDDAssertions.then;
@@ -29,6 +34,47 @@ public class ProblemDetailDeserializationBehavior {
         thenIsExpected(problemDetail);
     }
 
+    public static class ExtendedProblemDetail extends ProblemDetail {
+        private int balance;
+        private List<URI> accounts;
+        @JsonbProperty("account-owner") private String owner;
+        @JsonbTransient private String ignored;
+
+        public int getBalance() { return balance; }
+
+        public void setBalance(int balance) { this.balance = balance * 100; } // to see that the setter is used
+    }
+
+    @Test void shouldAcceptSubclass() {
+        boolean readable = new ProblemDetailJsonMessageBodyReader()
+            .isReadable(ExtendedProblemDetail.class, null, null, PROBLEM_DETAIL_JSON_TYPE);
+
+        then(readable).isTrue();
+    }
+
+    @Test void shouldDeserializeJsonSubclass() throws IOException {
+        ExtendedProblemDetail problemDetail = read(ExtendedProblemDetail.class, "{" +
+            "    \"type\": \"urn:problem-type:java.lang.NullPointerException\",\n" +
+            "    \"title\": \"Null Pointer\",\n" +
+            "    \"status\": 500,\n" +
+            "    \"unknown-object\": {\"nested\": [1, {\"deeper\": true}]},\n" +
+            "    \"unknown-array\": [[], {}],\n" +
+            "    \"unknown-string\": \"dummy\",\n" +
+            "    \"detail\": \"some message\",\n" +
+            "    \"instance\": \"urn:uuid:d294b32b-9dda-4292-b51f-35f65b4bf64d\",\n" +
+            "    \"balance\": 30,\n" +
+            "    \"accounts\": [\"/account/12345\", \"/account/67890\"],\n" +
+            "    \"account-owner\": \"Jane\",\n" +
+            "    \"ignored\": \"not set\"\n" +
+            "}");
+
+        thenIsExpected(problemDetail);
+        then(problemDetail.getBalance()).isEqualTo(3000);
+        then(problemDetail.accounts).containsExactly(URI.create("/account/12345"), URI.create("/account/67890"));
+        then(problemDetail.owner).isEqualTo("Jane");
+        then(problemDetail.ignored).isNull();
+    }
+
     @Test void shouldDeserializeXml() {
         ProblemDetailXmlMessageBodyReader reader = new ProblemDetailXmlMessageBodyReader();
 
@@ -50,6 +96,12 @@ public class ProblemDetailDeserializationBehavior {
         return reader.readFrom(ProblemDetail.class, null, null, null, null, new ByteArrayInputStream(text.getBytes(UTF_8)));
     }
 
+    private <T extends ProblemDetail> T read(Class<T> type, String text) throws IOException {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        MessageBodyReader<T> reader = (MessageBodyReader) new ProblemDetailJsonMessageBodyReader();
+        return reader.readFrom(type, null, null, null, null, new ByteArrayInputStream(text.getBytes(UTF_8)));
+    }
+
     private void thenIsExpected(ProblemDetail problemDetail) {
         then(problemDetail.getType()).isEqualTo(URI.create("urn:problem-type:java.lang.NullPointerException"));
         then(problemDetail.getTitle()).isEqualTo("Null Pointer");
@@ -1,12 +1,15 @@
 package test;
 
 import com.github.t1.problemdetailmapper.ProblemDetailHtmlMessageBodyWriter;
+import com.github.t1.problemdetailmapper.ProblemDetailJsonMessageBodyWriter;
 import com.github.t1.problemdetailmapper.ProblemDetailXmlMessageBodyWriter;
 import org.junit.jupiter.api.Test;
 
 import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
 import jakarta.json.bind.JsonbConfig;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -14,6 +17,7 @@ import java.net.URI;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -91,6 +95,29 @@ class ProblemDetailSerializationBehavior {
             "}");
     }
 
+    @Test void shouldStreamAsJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ProblemDetailJsonMessageBodyWriter().writeTo(SOME_PROBLEM_DETAIL, null, null, null, null, null, out);
+
+        then(out.toString(UTF_8)).isEqualTo("{" +
+            "\"type\":\"urn:some-type\"," +
+            "\"title\":\"some-title\"," +
+            "\"status\":400," +
+            "\"detail\":\"some-detail\"," +
+            "\"instance\":\"urn:some-instance\"," +
+            "\"k1\":\"v1\"," +
+            "\"k2\":[\"urn:1\",null,\"urn:2\"]," +
+            "\"k3\":{\"k3.1\":\"v3.1\",\"k3.2\":\"v3.2\"}," +
+            "\"k4\":{" +
+            "\"k4.1\":[\"v4.1.1\",\"v4.1.2\",\"v4.1.3\"]," +
+            "\"k4.2\":[\"v4.2.1\"]," +
+            "\"k4.3\":[\"v4.3.1\",\"v4.3.2\"]," +
+            "\"k4.4\":[]}," +
+            "\"k5\":null" +
+            "}");
+    }
+
     @Test void shouldSerializeAsXml() throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
@@ -134,13 +161,31 @@ class ProblemDetailSerializationBehavior {
             "</problem>\n");
     }
 
-    @Test void shouldSerializeAsHtml() {
+    @Test void shouldEscapeXml() throws IOException {
+        Map<String, Object> problem = new LinkedHashMap<>();
+        problem.put("detail", "a < b & c > d");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ProblemDetailXmlMessageBodyWriter().writeTo(problem, null, null, null, null, null, out);
+
+        then(out.toString(UTF_8)).isEqualTo(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<problem xmlns=\"urn:ietf:rfc:7807\">\n" +
+            "    <detail>a &lt; b &amp; c &gt; d</detail>\n" +
+            "</problem>\n");
+    }
+
+    @Test void shouldSerializeAsHtml() throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
-        new ProblemDetailHtmlMessageBodyWriter().writeTo(SOME_PROBLEM_DETAIL, null, null, null, null, null, out);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        new ProblemDetailHtmlMessageBodyWriter().writeTo(SOME_PROBLEM_DETAIL, null, null, null, null, headers, out);
 
-        then(out.toString()).isEqualTo("<html>\n" +
+        then(headers.getFirst("Content-Type")).isEqualTo("text/html;charset=UTF-8");
+        then(out.toString(UTF_8)).isEqualTo("<html>\n" +
                                        "<head>\n" +
+                                       "    <meta charset=\"utf-8\">\n" +
                                        "    <style>\n" +
                                        "        body {\n" +
                                        "            font-family: \"Fira Code\", \"Courier New\", Courier, monospace;\n" +
@@ -213,5 +258,21 @@ class ProblemDetailSerializationBehavior {
                                        "</html>\n");
     }
 
+    @Test void shouldEscapeHtml() throws IOException {
+        Map<String, Object> problem = new LinkedHashMap<>();
+        problem.put("title", "<script>alert('x')</script>");
+        problem.put("a&b", "\"quoted\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ProblemDetailHtmlMessageBodyWriter().writeTo(problem, null, null, null, null, new MultivaluedHashMap<>(), out);
+
+        then(out.toString(UTF_8))
+            .contains("    <title>Problem Detail: &lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;</title>\n")
+            .contains("<h1>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;</h1>\n")
+            .contains("        <td>a&amp;b</td>\n" +
+                      "        <td>&quot;quoted&quot;</td>\n")
+            .doesNotContain("<script>");
+    }
+
     private static final Jsonb JSONB = JsonbBuilder.create(new JsonbConfig().withFormatting(true));
 }
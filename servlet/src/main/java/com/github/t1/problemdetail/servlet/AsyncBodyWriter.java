@@ -0,0 +1,46 @@
+package com.github.t1.problemdetail.servlet;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+/**
+ * Writes a body in chunks, only as long as the output stream {@link ServletOutputStream#isReady() is ready};
+ * the container calls back when it's ready again, so no thread waits for a slow client.
+ */
+@Slf4j
+class AsyncBodyWriter implements WriteListener {
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final byte[] body;
+    private int offset;
+
+    AsyncBodyWriter(AsyncContext async, ServletOutputStream out, byte[] body) {
+        this.async = async;
+        this.out = out;
+        this.body = body;
+    }
+
+    @Override public void onWritePossible() throws IOException {
+        while (out.isReady()) {
+            if (offset == body.length) {
+                async.complete();
+                return;
+            }
+            int length = Math.min(CHUNK_SIZE, body.length - offset);
+            out.write(body, offset, length);
+            offset += length;
+        }
+    }
+
+    /** Typically the client has gone away, so there's nobody left to tell */
+    @Override public void onError(Throwable throwable) {
+        log.debug("failed to write problem detail after {} of {} bytes", offset, body.length, throwable);
+        async.complete();
+    }
+}
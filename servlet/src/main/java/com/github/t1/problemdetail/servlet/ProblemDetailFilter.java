@@ -0,0 +1,105 @@
+package com.github.t1.problemdetail.servlet;
+
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemHtml;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import com.github.t1.problemdetail.ri.lib.ProblemMediaType;
+import com.github.t1.problemdetail.ri.lib.ProblemXml;
+import com.github.t1.problemdetail.ri.lib.Unwrapping;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Maps the exceptions that no JAX-RS exception mapper sees, e.g. from plain servlets or other filters,
+ * to a response with a body containing problem details
+ * as specified in <a href="https://tools.ietf.org/html/rfc7807">rfc-7807</a>.
+ * Map it to <code>/*</code> as the first filter, with <code>async-supported</code>.
+ * <p>
+ * The body is rendered into memory; if the request supports async processing, it's then written by an
+ * {@link AsyncBodyWriter}, so slow clients don't hold the request thread.
+ * <p>
+ * Only exceptions are mapped: errors sent with {@link HttpServletResponse#sendError(int, String) sendError}
+ * are rendered by the error pages of the container, as before.
+ */
+public class ProblemDetailFilter implements Filter {
+    @Override public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (response.isCommitted() || !(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse))
+                throw e;
+            write((HttpServletRequest) request, (HttpServletResponse) response, unwrap(e));
+        }
+    }
+
+    /** The container wraps exceptions from servlets into <code>ServletException</code>s */
+    private static Exception unwrap(Exception exception) {
+        while (exception instanceof ServletException && exception.getCause() instanceof Exception)
+            exception = (Exception) exception.getCause();
+        return Unwrapping.unwrap(exception);
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, Exception exception) throws IOException {
+        ProblemMediaType mediaType = negotiate(request.getHeader("Accept"));
+        ProblemDetails problemDetails = problemDetails(exception, mediaType);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        render(problemDetails.getBody(), mediaType, body);
+
+        response.reset(); // not only the body, but also the headers that were meant for a successful response
+        response.setStatus(problemDetails.getStatus().getStatusCode());
+        response.setContentType(problemDetails.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.size());
+        ServletOutputStream out = response.getOutputStream();
+        if (request.isAsyncSupported()) {
+            AsyncContext async = request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync();
+            out.setWriteListener(new AsyncBodyWriter(async, out, body.toByteArray()));
+        } else {
+            body.writeTo(out);
+        }
+    }
+
+    /** We can only render JSON, XML, and HTML */
+    private static ProblemMediaType negotiate(String accept) {
+        ProblemMediaType mediaType = ProblemMediaType.negotiate(accept);
+        return (mediaType == ProblemMediaType.XML || mediaType == ProblemMediaType.HTML) ? mediaType : ProblemMediaType.JSON;
+    }
+
+    private static ProblemDetails problemDetails(Exception exception, ProblemMediaType mediaType) {
+        return new ProblemDetails(exception) {
+            @Override protected boolean hasDefaultMessage() {
+                return false;
+            }
+
+            @Override protected String findMediaTypeSubtype() {
+                return mediaType.getFormat();
+            }
+
+            @Override protected String buildResponseMediaType() {
+                return mediaType.toString();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void render(Object body, ProblemMediaType mediaType, ByteArrayOutputStream out) throws IOException {
+        if (mediaType == ProblemMediaType.XML)
+            new ProblemXml(body).writeTo(out);
+        else if (mediaType == ProblemMediaType.HTML)
+            new ProblemHtml((Map<String, Object>) body).writeTo(out);
+        else
+            new ProblemJson(body).writeTo(out);
+    }
+}
@@ -0,0 +1,159 @@
+package test;
+
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.servlet.ProblemDetailFilter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProblemDetailFilterBehavior {
+    @Mock HttpServletRequest request;
+    @Mock HttpServletResponse response;
+    @Mock FilterChain chain;
+    @Mock AsyncContext async;
+
+    private final ProblemDetailFilter filter = new ProblemDetailFilter();
+    private final MockOutputStream out = new MockOutputStream();
+
+    @BeforeEach void setUp() throws IOException {
+        given(response.getOutputStream()).willReturn(out);
+    }
+
+    @Status(FORBIDDEN)
+    static class SomeException extends RuntimeException {
+        SomeException() { super("some-message"); }
+    }
+
+    private void givenChainThrows(Exception exception) throws IOException, ServletException {
+        willThrow(exception).given(chain).doFilter(request, response);
+    }
+
+    @Test void shouldPassThroughWithoutException() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verify(response, never()).setStatus(any(int.class));
+        then(out.written()).isEmpty();
+    }
+
+    @Test void shouldWriteProblemDetail() throws Exception {
+        givenChainThrows(new SomeException());
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).reset();
+        verify(response).setStatus(403);
+        verify(response).setContentType("application/problem+json");
+        verify(response).setContentLength(out.written().getBytes(UTF_8).length);
+        then(out.written())
+            .startsWith("{\"type\":\"urn:problem-type:some\"")
+            .contains("\"title\":\"Some\"", "\"status\":403", "\"detail\":\"some-message\"");
+    }
+
+    @Test void shouldWriteXmlProblemDetail() throws Exception {
+        given(request.getHeader("Accept")).willReturn("application/xml");
+        givenChainThrows(new SomeException());
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setContentType("application/problem+xml");
+        then(out.written()).contains("<problem xmlns=\"urn:ietf:rfc:7807\">", "<status>403</status>");
+    }
+
+    @Test void shouldUnwrapServletException() throws Exception {
+        givenChainThrows(new ServletException(new CompletionException(new SomeException())));
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setStatus(403);
+        then(out.written()).contains("\"title\":\"Some\"");
+    }
+
+    @Test void shouldRethrowWhenCommitted() throws Exception {
+        SomeException exception = new SomeException();
+        givenChainThrows(exception);
+        given(response.isCommitted()).willReturn(true);
+
+        Throwable thrown = catchThrowable(() -> filter.doFilter(request, response, chain));
+
+        then(thrown).isSameAs(exception);
+        then(out.written()).isEmpty();
+    }
+
+    @Test void shouldWriteAsyncOnlyWhileReady() throws Exception {
+        given(request.isAsyncSupported()).willReturn(true);
+        given(request.startAsync()).willReturn(async);
+        givenChainThrows(new SomeException());
+
+        filter.doFilter(request, response, chain);
+
+        then(out.listener).isNotNull();
+        then(out.written()).isEmpty();
+
+        out.ready = 1;
+        out.listener.onWritePossible();
+
+        then(out.written()).startsWith("{\"type\":").contains("\"status\":403");
+        verify(async, never()).complete();
+
+        out.ready = 1;
+        out.listener.onWritePossible();
+
+        verify(async).complete();
+    }
+
+    @Test void shouldCompleteAsyncOnError() throws Exception {
+        given(request.isAsyncSupported()).willReturn(true);
+        given(request.startAsync()).willReturn(async);
+        givenChainThrows(new SomeException());
+        filter.doFilter(request, response, chain);
+
+        out.listener.onError(new IOException("client gone"));
+
+        verify(async).complete();
+    }
+
+    /** Ready for the number of <code>isReady</code> calls in {@link #ready}; always ready without a listener */
+    static class MockOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WriteListener listener;
+        int ready;
+
+        String written() { return bytes.toString(UTF_8); }
+
+        @Override public boolean isReady() { return listener == null || ready-- > 0; }
+
+        @Override public void setWriteListener(WriteListener listener) { this.listener = listener; }
+
+        @Override public void write(int b) { bytes.write(b); }
+
+        @Override public void write(byte[] b, int off, int len) { bytes.write(b, off, len); }
+    }
+}
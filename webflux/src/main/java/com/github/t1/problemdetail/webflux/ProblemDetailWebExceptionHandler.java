@@ -0,0 +1,158 @@
+package com.github.t1.problemdetail.webflux;
+
+import com.github.t1.problemdetail.ri.lib.InstanceFactories;
+import com.github.t1.problemdetail.ri.lib.LogSink;
+import com.github.t1.problemdetail.ri.lib.ProblemDetails;
+import com.github.t1.problemdetail.ri.lib.ProblemHtml;
+import com.github.t1.problemdetail.ri.lib.ProblemJson;
+import com.github.t1.problemdetail.ri.lib.ProblemMediaType;
+import com.github.t1.problemdetail.ri.lib.ProblemMetrics;
+import com.github.t1.problemdetail.ri.lib.ProblemTypeDescriptor;
+import com.github.t1.problemdetail.ri.lib.ProblemXml;
+import com.github.t1.problemdetail.ri.lib.Unwrapping;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.Response.StatusType;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Maps exceptions to a response with a body containing problem details
+ * as specified in <a href="https://tools.ietf.org/html/rfc7807">rfc-7807</a>, for Spring WebFlux.
+ * <p>
+ * It never blocks the event loop: the first problem of an exception class, i.e. reading its annotations by reflection,
+ * is mapped on the {@link Schedulers#boundedElastic() bounded elastic} scheduler; all later problems are mapped
+ * and encoded directly into a {@link DataBuffer} on the calling thread. The logging is done by the
+ * {@link LogSink#nonBlocking() non-blocking} log sink.
+ */
+public class ProblemDetailWebExceptionHandler implements WebExceptionHandler, Ordered {
+    /** Before the <code>DefaultErrorWebExceptionHandler</code> of Spring Boot */
+    public static final int ORDER = -2;
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final Scheduler scheduler;
+
+    public ProblemDetailWebExceptionHandler() {
+        this(Schedulers.boundedElastic());
+    }
+
+    /** @param scheduler where to map the first problem of an exception class */
+    public ProblemDetailWebExceptionHandler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        // these load their configuration and services on first use, i.e. they read the class path; do it now
+        LogSink.nonBlocking();
+        ProblemMetrics.configured();
+        InstanceFactories.configured();
+        Unwrapping.isWrapper(new RuntimeException());
+    }
+
+    @Override public int getOrder() {
+        return ORDER;
+    }
+
+    @Override public Mono<Void> handle(ServerWebExchange exchange, Throwable throwable) {
+        if (!(throwable instanceof Exception exception) || exchange.getResponse().isCommitted())
+            return Mono.error(throwable);
+        ProblemMediaType mediaType = negotiate(exchange.getRequest().getHeaders());
+        if (ProblemTypeDescriptor.peek(exception.getClass()) != null) {
+            Exception unwrapped = Unwrapping.unwrap(exception);
+            if (ProblemTypeDescriptor.peek(unwrapped.getClass()) != null)
+                return write(exchange.getResponse(), unwrapped, problemDetails(unwrapped, mediaType), mediaType);
+        }
+        return Mono.fromCallable(() -> {
+                ProblemTypeDescriptor.of(exception.getClass()); // so the next one is mapped directly
+                Exception unwrapped = Unwrapping.unwrap(exception);
+                return Tuples.of(unwrapped, problemDetails(unwrapped, mediaType));
+            })
+            .subscribeOn(scheduler)
+            .flatMap(mapped -> write(exchange.getResponse(), mapped.getT1(), mapped.getT2(), mediaType));
+    }
+
+    /** We can only render JSON, XML, and HTML */
+    private static ProblemMediaType negotiate(HttpHeaders headers) {
+        ProblemMediaType mediaType = ProblemMediaType.negotiate(String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT)));
+        return (mediaType == ProblemMediaType.XML || mediaType == ProblemMediaType.HTML) ? mediaType : ProblemMediaType.JSON;
+    }
+
+    private static ProblemDetails problemDetails(Exception exception, ProblemMediaType mediaType) {
+        return new ProblemDetails(exception) {
+            @Override protected StatusType fallbackStatus() {
+                if (exception instanceof ResponseStatusException responseStatus) {
+                    Status status = Status.fromStatusCode(responseStatus.getStatusCode().value());
+                    if (status != null)
+                        return status;
+                }
+                return super.fallbackStatus();
+            }
+
+            /** The message of a <code>ResponseStatusException</code> repeats the status; the detail is the reason */
+            @Override protected String buildDetail() {
+                return (exception instanceof ResponseStatusException responseStatus && descriptor.getDetails().isEmpty())
+                    ? responseStatus.getReason() : super.buildDetail();
+            }
+
+            @Override protected boolean hasDefaultMessage() {
+                return false;
+            }
+
+            @Override protected String findMediaTypeSubtype() {
+                return mediaType.getFormat();
+            }
+
+            @Override protected String buildResponseMediaType() {
+                return mediaType.toString();
+            }
+
+            @Override protected LogSink logSink() {
+                return LogSink.nonBlocking();
+            }
+        };
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, Exception exception, ProblemDetails problemDetails,
+                                    ProblemMediaType mediaType) {
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(INITIAL_BUFFER_SIZE);
+        try (OutputStream out = buffer.asOutputStream()) {
+            render(problemDetails.getBody(), mediaType, out);
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(problemDetails.getStatus().getStatusCode()));
+        HttpHeaders headers = response.getHeaders();
+        if (exception instanceof ResponseStatusException responseStatus)
+            headers.addAll(responseStatus.getHeaders()); // e.g. `Allow` or `Retry-After`
+        MediaType contentType = MediaType.parseMediaType(problemDetails.getMediaType());
+        headers.setContentType((mediaType == ProblemMediaType.HTML) ? new MediaType(contentType, UTF_8) : contentType);
+        headers.setContentLength(buffer.readableByteCount());
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void render(Object body, ProblemMediaType mediaType, OutputStream out) throws IOException {
+        if (mediaType == ProblemMediaType.XML)
+            new ProblemXml(body).writeTo(out);
+        else if (mediaType == ProblemMediaType.HTML)
+            new ProblemHtml((Map<String, Object>) body).writeTo(out);
+        else
+            new ProblemJson(body).writeTo(out);
+    }
+}
@@ -0,0 +1,137 @@
+package test;
+
+import com.github.t1.problemdetail.Detail;
+import com.github.t1.problemdetail.Extension;
+import com.github.t1.problemdetail.Status;
+import com.github.t1.problemdetail.webflux.ProblemDetailWebExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ProblemDetailWebExceptionHandlerBehavior {
+    private final Scheduler scheduler = Schedulers.newSingle("problem-details-test");
+    private final ProblemDetailWebExceptionHandler handler = new ProblemDetailWebExceptionHandler(scheduler);
+
+    @AfterEach void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    private MockServerWebExchange handle(MockServerHttpRequest request, Throwable throwable) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        handler.handle(exchange, throwable).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange handle(Throwable throwable) {
+        return handle(MockServerHttpRequest.get("/foo").build(), throwable);
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Status(FORBIDDEN)
+    static class SomeException extends RuntimeException {
+        SomeException() { super("some-message"); }
+    }
+
+    @Test void shouldMapToJsonByDefault() {
+        MockServerWebExchange exchange = handle(new SomeException());
+
+        then(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        then(exchange.getResponse().getHeaders().getContentType()).hasToString("application/problem+json");
+        then(exchange.getResponse().getHeaders().getContentLength()).isGreaterThan(0);
+        then(body(exchange))
+            .startsWith("{\"type\":\"urn:problem-type:some\"")
+            .contains("\"title\":\"Some\"", "\"status\":403", "\"detail\":\"some-message\"", "\"instance\":");
+    }
+
+    @Test void shouldMapToXml() {
+        MockServerWebExchange exchange = handle(MockServerHttpRequest.get("/foo").accept(MediaType.APPLICATION_XML).build(),
+            new SomeException());
+
+        then(exchange.getResponse().getHeaders().getContentType()).hasToString("application/problem+xml");
+        then(body(exchange)).contains("<problem xmlns=\"urn:ietf:rfc:7807\">", "<status>403</status>");
+    }
+
+    @Test void shouldMapToHtmlWithCharset() {
+        MockServerWebExchange exchange = handle(MockServerHttpRequest.get("/foo").header("Accept", "text/html, application/xhtml+xml").build(),
+            new SomeException());
+
+        then(exchange.getResponse().getHeaders().getContentType()).hasToString("text/html;charset=UTF-8");
+        then(body(exchange)).contains("<meta charset=\"utf-8\">", "some-message");
+    }
+
+    @Test void shouldFallBackToJsonForUnsupportedFormat() {
+        MockServerWebExchange exchange = handle(MockServerHttpRequest.get("/foo").header("Accept", "application/yaml").build(),
+            new SomeException());
+
+        then(exchange.getResponse().getHeaders().getContentType()).hasToString("application/problem+json");
+    }
+
+    @Test void shouldUnwrap() {
+        MockServerWebExchange exchange = handle(new CompletionException(new SomeException()));
+
+        then(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        then(body(exchange)).contains("\"title\":\"Some\"");
+    }
+
+    @Test void shouldMapResponseStatusException() {
+        MockServerWebExchange exchange = handle(new ResponseStatusException(HttpStatus.NOT_FOUND, "no foo"));
+
+        then(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        then(body(exchange)).contains("\"status\":404", "\"detail\":\"no foo\"");
+    }
+
+    @Test void shouldCopyResponseStatusExceptionHeaders() {
+        MockServerWebExchange exchange = handle(new MethodNotAllowedException(HttpMethod.DELETE, Set.of(HttpMethod.GET)));
+
+        then(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        then(exchange.getResponse().getHeaders().getAllow()).containsExactly(HttpMethod.GET);
+        then(exchange.getResponse().getHeaders().getContentType()).hasToString("application/problem+json");
+    }
+
+    @Test void shouldNotHandleErrors() {
+        AssertionError error = new AssertionError("some-error");
+
+        Throwable thrown = handler.handle(MockServerWebExchange.from(MockServerHttpRequest.get("/foo").build()), error)
+            .then(Mono.<Throwable>empty())
+            .onErrorResume(Mono::just)
+            .block();
+
+        then(thrown).isSameAs(error);
+    }
+
+    static class PojoException extends RuntimeException {
+        @Extension Object pojo() { return new Object() { @Override public String toString() { return "some-pojo"; } }; }
+    }
+
+    @Test void shouldRenderPojoExtensionWithoutJsonbAsString() {
+        then(body(handle(new PojoException()))).contains("\"pojo\":\"some-pojo\"");
+        then(body(handle(new PojoException()))).contains("\"pojo\":\"some-pojo\"");
+    }
+
+    static class ThreadException extends RuntimeException {
+        @Detail String thread() { return Thread.currentThread().getName(); }
+    }
+
+    @Test void shouldMapFirstProblemOfClassOnScheduler() {
+        then(body(handle(new ThreadException()))).contains("\"detail\":\"problem-details-test-");
+        then(body(handle(new ThreadException()))).contains("\"detail\":\"" + Thread.currentThread().getName() + "\"");
+    }
+}